@@ -0,0 +1,69 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ross.leonardo.FFmpegUtil;
+
+// Per-call cost of the FFmpegUtil timestamp helpers, old and new
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FFmpegUtilBenchmark {
+
+    public String shortTimestamp = "00:12:34.56";
+    public String longTimestamp = "123:45:06.789012";
+    public String missingTimestamp = "N/A";
+    public String statsLine =
+            "frame= 4512 fps= 59 q=23.0 size=   51200kB time=00:01:15.20 bitrate=5577.2kbits/s speed=2.51x";
+
+    @Benchmark
+    public double parseTimestamp() {
+        return FFmpegUtil.parseTimestamp(shortTimestamp);
+    }
+
+    @Benchmark
+    public double parseTimestampOver99Hours() {
+        return FFmpegUtil.parseTimestamp(longTimestamp);
+    }
+
+    @Benchmark
+    public double parseTimestampMissing() {
+        return FFmpegUtil.parseTimestamp(missingTimestamp);
+    }
+
+    @Benchmark
+    public double legacyParseDuration() {
+        return LegacyParsing.parseDuration(shortTimestamp);
+    }
+
+    @Benchmark
+    public double extractTimeInSeconds() {
+        return FFmpegUtil.extractTimeInSeconds(statsLine);
+    }
+
+    @Benchmark
+    public double legacyExtractTimeInSeconds() {
+        return LegacyParsing.extractTimeInSeconds(statsLine);
+    }
+}
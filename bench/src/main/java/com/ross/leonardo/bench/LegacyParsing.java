@@ -0,0 +1,37 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo.bench;
+
+// The FFmpegUtil parsing as it was before -progress, kept only as a benchmark baseline
+final class LegacyParsing {
+
+    private LegacyParsing() {
+        // Prevent instantiation
+    }
+
+    static double parseDuration(String duration) {
+        String[] parts = duration.split(":");
+        double hours = Double.parseDouble(parts[0]);
+        double minutes = Double.parseDouble(parts[1]);
+        double seconds = Double.parseDouble(parts[2]);
+        return hours * 3600 + minutes * 60 + seconds;
+    }
+
+    static double extractTimeInSeconds(String line) {
+        try {
+            int index = line.indexOf("time=");
+            if (index == -1) return 0;
+
+            String timePart = line.substring(index + 5, index + 16);
+            return parseDuration(timePart);
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.ross.leonardo.FFmpegRunner;
+
+// What it costs to launch and reap one ffmpeg, using a shell stub so the
+// numbers are about Leonardo's process handling rather than encoding.
+// The stub emits STUB_BLOCKS progress blocks (set in the forked JVM's env).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProcessSpawnBenchmark {
+
+    private Path stub;
+
+    @Setup(Level.Trial)
+    public void extractStub() throws IOException {
+        stub = Files.createTempFile("leonardo-stub-ffmpeg-", ".sh");
+        try (InputStream in = ProcessSpawnBenchmark.class.getResourceAsStream("stub-ffmpeg.sh")) {
+            if (in == null) throw new IOException("stub-ffmpeg.sh missing from the benchmark jar");
+            Files.copy(in, stub, StandardCopyOption.REPLACE_EXISTING);
+        }
+        stub.toFile().setExecutable(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteStub() throws IOException {
+        Files.deleteIfExists(stub);
+    }
+
+    // Bare fork/exec/wait, like the startup "ffmpeg -version" check
+    @Benchmark
+    public int spawnAndWait() throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(stub.toString(), "-version")
+                .redirectErrorStream(true)
+                .start();
+        process.getInputStream().readAllBytes();
+        return process.waitFor();
+    }
+
+    // A whole job through FFmpegRunner: spawn, stderr drain thread, progress parsing, teardown
+    @Benchmark
+    public void runnerJob(Blackhole bh) throws IOException, InterruptedException {
+        new FFmpegRunner().run(List.of(stub.toString(), "-i", "in.mkv", "out.mp4"), 100, bh::consume);
+    }
+
+    // Same, but cancelled once the first progress block arrives: the cost of destroyForcibly and reaping
+    @Benchmark
+    public void runnerCancel() throws InterruptedException {
+        FFmpegRunner runner = new FFmpegRunner();
+        CountDownLatch running = new CountDownLatch(1);
+
+        Thread worker = new Thread(() -> {
+            try {
+                runner.run(List.of(stub.toString(), "-i", "in.mkv", "out.mp4"), 100,
+                        event -> running.countDown());
+            } catch (Exception ignored) {
+                // cancelled
+            } finally {
+                running.countDown();
+            }
+        });
+        worker.start();
+
+        running.await();
+        runner.cancel();
+        worker.join();
+    }
+}
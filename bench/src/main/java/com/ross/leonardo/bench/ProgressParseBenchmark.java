@@ -0,0 +1,84 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo.bench;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.ross.leonardo.ProgressParser;
+
+// Before/after for the progress monitoring loop. Run with "-prof gc" and
+// compare gc.alloc.rate.norm: that is bytes allocated per 1000 updates.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProgressParseBenchmark {
+
+    @Param({ "1000" })
+    public int updates;
+
+    private byte[] statsLines;
+    private byte[] progressBlocks;
+
+    @Setup
+    public void setup() {
+        statsLines = ProgressSamples.statsLines(updates);
+        progressBlocks = ProgressSamples.progressBlocks(updates);
+    }
+
+    // Before: readLine per stats line, then contains/substring/split/parseDouble
+    @Benchmark
+    public void legacyStringLines(Blackhole bh) throws IOException {
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(statsLines)));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.contains("time=")) {
+                bh.consume(LegacyParsing.extractTimeInSeconds(line));
+            }
+        }
+    }
+
+    // After: raw bytes from the stream into one reused buffer
+    @Benchmark
+    public void byteParser(Blackhole bh) throws IOException {
+        new ProgressParser(3600).parse(new ByteArrayInputStream(progressBlocks), bh::consume);
+    }
+
+    // The String entry point, to show what per-line decoding alone costs
+    @Benchmark
+    public void byteParserFromStrings(Blackhole bh) throws IOException {
+        ProgressParser parser = new ProgressParser(3600);
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(progressBlocks)));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            bh.consume(parser.accept(line));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo.bench;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+// Synthetic ffmpeg output with the same shape as a real encode
+final class ProgressSamples {
+
+    private ProgressSamples() {
+        // Prevent instantiation
+    }
+
+    // Classic stderr stats, one "\r"-terminated line per update (what we parsed before -progress)
+    static byte[] statsLines(int updates) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < updates; i++) {
+            sb.append(String.format(Locale.ROOT,
+                    "frame=%5d fps= 59 q=23.0 size=%8dkB time=%02d:%02d:%02d.%02d bitrate=4123.4kbits/s speed=2.51x    \r",
+                    i * 30, i * 100, i / 3600, (i / 60) % 60, i % 60, i % 100));
+        }
+        return sb.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // "-progress pipe:1" key/value blocks
+    static byte[] progressBlocks(int updates) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < updates; i++) {
+            long micros = i * 1_000_000L;
+            sb.append("frame=").append(i * 30).append('\n')
+              .append("fps=59.94\n")
+              .append("stream_0_0_q=23.0\n")
+              .append("bitrate=4123.4kbits/s\n")
+              .append("total_size=").append(i * 100_000L).append('\n')
+              .append("out_time_us=").append(micros).append('\n')
+              .append("out_time_ms=").append(micros).append('\n')
+              .append(String.format(Locale.ROOT, "out_time=%02d:%02d:%02d.000000%n", i / 3600, (i / 60) % 60, i % 60))
+              .append("dup_frames=0\n")
+              .append("drop_frames=0\n")
+              .append("speed=2.51x\n")
+              .append(i == updates - 1 ? "progress=end\n" : "progress=continue\n");
+        }
+        return sb.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+}
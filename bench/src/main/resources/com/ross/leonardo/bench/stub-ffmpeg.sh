@@ -0,0 +1,19 @@
+#!/bin/sh
+# Stand-in for ffmpeg in the process benchmarks: answers -version, otherwise
+# writes $STUB_BLOCKS "-progress pipe:1" blocks to stdout and exits 0.
+
+for arg in "$@"; do
+    if [ "$arg" = "-version" ]; then
+        echo "ffmpeg version stub"
+        exit 0
+    fi
+done
+
+blocks=${STUB_BLOCKS:-100}
+i=0
+while [ "$i" -lt "$blocks" ]; do
+    printf 'frame=%d\nfps=59.94\nbitrate=4123.4kbits/s\ntotal_size=%d\nout_time_us=%d000000\nspeed=2.51x\nprogress=continue\n' \
+        "$((i * 30))" "$((i * 100000))" "$i"
+    i=$((i + 1))
+done
+printf 'progress=end\n'
@@ -0,0 +1,61 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Adds a class-data-sharing (AppCDS) archive to an unpacked Leonardo AppDir,
+# right before it is squashed into the AppImage. The JVM then maps the
+# pre-parsed Swing/FlatLaf/Leonardo classes from the archive instead of
+# loading and verifying them one by one, which is most of our cold start.
+#
+#   ./build-cds-archive.sh path/to/Leonardo.AppDir
+#
+# Needs a display for the training run (use xvfb-run on a headless builder)
+# and a bundled runtime of JDK 16 or later, which accepts the archive even
+# though the AppImage is mounted at a different path on every launch. The
+# runtime should have its default CDS archive (jlink --generate-cds-archive),
+# which the dynamic archive is layered on.
+
+APPDIR="${1:-}"
+if [[ -z "${APPDIR}" || ! -x "${APPDIR}/usr/bin/Leonardo" ]]; then
+  echo "Usage: $0 path/to/Leonardo.AppDir   (must contain usr/bin/Leonardo)"
+  exit 1
+fi
+APPDIR="$(cd "${APPDIR}" && pwd)"
+
+APP_LIB="${APPDIR}/usr/lib/app"
+CFG="$(ls -1 "${APP_LIB}"/*.cfg 2>/dev/null | head -n 1 || true)"
+if [[ -z "${CFG}" ]]; then
+  echo "ERROR: No launcher .cfg found in ${APP_LIB}"
+  exit 1
+fi
+
+ARCHIVE="${APP_LIB}/leonardo.jsa"
+rm -f "${ARCHIVE}"
+
+# Train with a throwaway home so no real config, journals or watch folder are used
+TRAIN_HOME="$(mktemp -d)"
+cleanup() { rm -rf "${TRAIN_HOME}"; }
+trap cleanup EXIT
+
+echo "==> Training run (opens and closes the window)"
+HOME="${TRAIN_HOME}" \
+JAVA_TOOL_OPTIONS="-XX:ArchiveClassesAtExit=${ARCHIVE} -Duser.home=${TRAIN_HOME}" \
+  "${APPDIR}/usr/bin/Leonardo" --cds-training
+
+if [[ ! -s "${ARCHIVE}" ]]; then
+  echo "ERROR: The JVM did not write ${ARCHIVE}."
+  echo "       Check that the bundled runtime is JDK 16+ and has a default CDS archive."
+  exit 1
+fi
+
+echo "==> Registering the archive with the launcher: ${CFG}"
+# Drop options from an earlier run of this script, then add ours. $APPDIR is
+# expanded by the launcher itself, so the path follows the AppImage mount.
+sed -i '/leonardo\.jsa/d; /-Xshare:auto/d; /-Xlog:cds/d' "${CFG}"
+if ! grep -q '^\[JavaOptions\]' "${CFG}"; then
+  printf '\n[JavaOptions]\n' >> "${CFG}"
+fi
+sed -i '/^\[JavaOptions\]/a java-options=-XX:SharedArchiveFile=$APPDIR/leonardo.jsa\njava-options=-Xshare:auto\njava-options=-Xlog:cds=off,cds+dynamic=off' "${CFG}"
+
+echo
+echo "Done: $(du -h "${ARCHIVE}" | cut -f1) archive."
+echo "A runtime that cannot use it (different JVM build) silently falls back to normal class loading."
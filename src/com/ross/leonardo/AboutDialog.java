@@ -14,7 +14,6 @@ import java.awt.Desktop;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.Font;
-import java.awt.Image;
 import java.io.File;
 import java.net.URI;
 import java.net.URL;
@@ -50,12 +49,9 @@ public class AboutDialog extends JDialog {
         mainPanel.setBorder(BorderFactory.createEmptyBorder(20, 25, 20, 25));
 
         // ----- Icon -----
-        URL iconURL = getClass().getResource("/com/ross/leonardo/resources/leo_icon.png");
+        URL iconURL = getClass().getResource("/com/ross/leonardo/resources/icons/leo_icon_140.png");
         if (iconURL != null) {
-            ImageIcon originalIcon = new ImageIcon(iconURL);
-            Image scaledImage = originalIcon.getImage().getScaledInstance(140, 140, Image.SCALE_SMOOTH);
-
-            JLabel imageLabel = new JLabel(new ImageIcon(scaledImage));
+            JLabel imageLabel = new JLabel(new ImageIcon(iconURL));
             imageLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
             mainPanel.add(imageLabel);
             mainPanel.add(Box.createVerticalStrut(12));
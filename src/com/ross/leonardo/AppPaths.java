@@ -0,0 +1,32 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.io.File;
+
+public final class AppPaths {
+
+    private AppPaths() {
+        // Prevent instantiation
+    }
+
+    // ~/.leonardo, created on first use
+    public static File dataDir() {
+        File dir = new File(System.getProperty("user.home"), ".leonardo");
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        return dir;
+    }
+
+    // A file or sub-directory name inside ~/.leonardo (sub-directories are not created)
+    public static File resolve(String name) {
+        return new File(dataDir(), name);
+    }
+}
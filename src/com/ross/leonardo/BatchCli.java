@@ -0,0 +1,538 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Headless entry points:
+//   leonardo convert --preset "YouTube H.264" -j 4 dir/*.mkv
+//   leonardo watch --preset "OBS Remux" -o ~/Edit ~/Videos/OBS
+public final class BatchCli {
+
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_FAILED = 1;
+    public static final int EXIT_USAGE = 2;
+
+    private static final PrintStream out = System.out;
+    private static final PrintStream err = System.err;
+
+    // A log line per 10% step needs no finer sampling than this
+    private static final long LOG_PERIOD_MILLIS = 500;
+
+    // Everything both commands accept
+    private static final class Options {
+        String command;
+        final List<Preset> presets = new ArrayList<>();
+        int workers = JobScheduler.defaultWorkerCount();
+        File outputDir;
+        int segments;
+        boolean streamCopy = true;
+        boolean force;
+        boolean resumable;
+        boolean hardware;
+        boolean follow;
+        ProcessPriority priority;   // null: normal for convert, background for watch
+        String cpus;
+        SpeedTarget target;
+        File scratchDir;
+        int diskWriters = DiskBudget.DEFAULT_WRITERS_PER_DISK;
+        long settleMillis = WatchFolderService.DEFAULT_SETTLE_MILLIS;
+        final List<File> inputs = new ArrayList<>();
+    }
+
+    private BatchCli() {
+        // Prevent instantiation
+    }
+
+    public static boolean isCommand(String[] args) {
+        return args.length > 0
+                && (args[0].equals("convert") || args[0].equals("watch")
+                    || args[0].equals("--help") || args[0].equals("-h"));
+    }
+
+    public static int run(String[] args) {
+
+        if (args.length == 0 || !(args[0].equals("convert") || args[0].equals("watch"))) {
+            printUsage(out);
+            return EXIT_OK;
+        }
+
+        Options options = new Options();
+        options.command = args[0];
+        boolean watch = options.command.equals("watch");
+        List<String> presetNames = new ArrayList<>();
+
+        try {
+            for (int i = 1; i < args.length; i++) {
+                String arg = args[i];
+
+                switch (arg) {
+                    case "-p":
+                    case "--preset":
+                        presetNames.add(requireValue(args, ++i, arg));
+                        break;
+                    case "-j":
+                    case "--jobs":
+                        options.workers = Integer.parseInt(requireValue(args, ++i, arg));
+                        if (options.workers < 1) throw new IllegalArgumentException("-j must be at least 1");
+                        break;
+                    case "-o":
+                    case "--output-dir":
+                        options.outputDir = new File(requireValue(args, ++i, arg));
+                        break;
+                    case "--segments":
+                        options.segments = Integer.parseInt(requireValue(args, ++i, arg));
+                        if (options.segments < 0) throw new IllegalArgumentException("--segments must not be negative");
+                        break;
+                    case "--split":
+                        options.segments = SegmentedEncoder.defaultSegmentCount();
+                        break;
+                    case "-f":
+                    case "--force":
+                        options.force = true;
+                        break;
+                    case "--follow":
+                        options.follow = true;
+                        break;
+                    case "--resumable":
+                        options.resumable = true;
+                        break;
+                    case "--hwenc":
+                        options.hardware = true;
+                        break;
+                    case "--priority":
+                        options.priority = ProcessPriority.parse(requireValue(args, ++i, arg));
+                        break;
+                    case "--target":
+                        options.target = SpeedTarget.parse(requireValue(args, ++i, arg));
+                        break;
+                    case "--scratch":
+                        options.scratchDir = new File(requireValue(args, ++i, arg));
+                        break;
+                    case "--disk-writers":
+                        options.diskWriters = Integer.parseInt(requireValue(args, ++i, arg));
+                        if (options.diskWriters < 1) throw new IllegalArgumentException("--disk-writers must be at least 1");
+                        break;
+                    case "--cpus":
+                        options.cpus = ProcessPriority.checkCpuList(requireValue(args, ++i, arg));
+                        break;
+                    case "--no-copy":
+                        options.streamCopy = false;
+                        break;
+                    case "--settle":
+                        options.settleMillis = Math.round(Double.parseDouble(requireValue(args, ++i, arg)) * 1000);
+                        if (options.settleMillis < 0) throw new IllegalArgumentException("--settle must not be negative");
+                        break;
+                    case "--list-presets":
+                        listPresets();
+                        return EXIT_OK;
+                    case "-h":
+                    case "--help":
+                        printUsage(out);
+                        return EXIT_OK;
+                    default:
+                        if (arg.startsWith("-")) {
+                            throw new IllegalArgumentException("Unknown option: " + arg);
+                        }
+                        if (watch) {
+                            addWatchDirectory(options.inputs, new File(arg));
+                        } else {
+                            addInput(options.inputs, new File(arg));
+                        }
+                }
+            }
+        } catch (NumberFormatException e) {
+            err.println("Invalid number: " + e.getMessage());
+            return EXIT_USAGE;
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            printUsage(err);
+            return EXIT_USAGE;
+        }
+
+        if (presetNames.isEmpty()) {
+            err.println("Missing --preset. Available presets:");
+            Presets.builtIn().forEach(p -> err.println("  " + p.getName()));
+            return EXIT_USAGE;
+        }
+
+        // Several --preset options: every input is decoded once for all of them
+        for (String presetName : presetNames) {
+            Preset preset = Presets.find(presetName);
+            if (preset == null) {
+                err.println("Unknown or ambiguous preset: " + presetName);
+                Presets.builtIn().forEach(p -> err.println("  " + p.getName()));
+                return EXIT_USAGE;
+            }
+            if (!options.presets.contains(preset)) {
+                options.presets.add(preset);
+            }
+        }
+
+        if (options.inputs.isEmpty()) {
+            err.println(watch ? "No folders to watch given." : "No input files given.");
+            return EXIT_USAGE;
+        }
+
+        File outputDir = options.outputDir;
+        if (outputDir != null && !outputDir.isDirectory() && !outputDir.mkdirs()) {
+            err.println("Cannot create output directory: " + outputDir);
+            return EXIT_USAGE;
+        }
+
+        if (options.scratchDir != null && !options.scratchDir.isDirectory() && !options.scratchDir.mkdirs()) {
+            err.println("Cannot create scratch directory: " + options.scratchDir);
+            return EXIT_USAGE;
+        }
+
+        if (!FFmpegUtil.isFFmpegAvailable()) {
+            err.println("FFmpeg was not found on your system. Leonardo requires FFmpeg to convert media files.");
+            return EXIT_FAILED;
+        }
+
+        return watch ? watchAll(options) : convertAll(options);
+    }
+
+    private static int convertAll(Options options) {
+
+        List<File> inputs = options.inputs;
+        List<Preset> presets = options.presets;
+        int total = inputs.size() * presets.size();
+
+        LogListener listener = new LogListener(total, presets.size() > 1);
+        JobScheduler scheduler = createScheduler(options, listener);
+
+        // Ctrl+C / SIGTERM: don't leave orphaned ffmpeg processes behind
+        Thread shutdownHook = new Thread(scheduler::cancelAll, "leonardo-cancel");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+
+        log("Converting " + inputs.size() + " file(s) with " + describe(presets) + " using "
+                + options.workers + " worker(s)");
+
+        Set<String> outputs = new HashSet<>();
+
+        for (File input : inputs) {
+            List<File> files = Presets.outputsFor(presets, input, options.outputDir);
+            List<ConversionJob> group = new ArrayList<>();
+
+            for (int i = 0; i < presets.size(); i++) {
+                File output = files.get(i);
+
+                // Two inputs that only differ by extension would race for the same output file
+                if (!outputs.add(output.getAbsolutePath())) {
+                    listener.skipped();
+                    log("SKIP   " + input.getName() + ": output " + output + " is already claimed by another input");
+                    continue;
+                }
+
+                group.add(newJob(options, input, output, presets.get(i)));
+            }
+
+            scheduler.submitGroup(group);
+        }
+
+        scheduler.shutdown();
+
+        try {
+            scheduler.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        } catch (InterruptedException e) {
+            scheduler.cancelAll();
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException ignored) {
+            // Already shutting down
+        }
+
+        int failed = listener.failed.get();
+        log((total - failed) + " of " + total + " conversion(s) succeeded");
+        return failed == 0 ? EXIT_OK : EXIT_FAILED;
+    }
+
+    // Runs until Ctrl+C / SIGTERM, queueing each new file once it has stopped growing
+    private static int watchAll(Options options) {
+
+        List<Preset> presets = options.presets;
+        JobScheduler scheduler = createScheduler(options, new LogListener(0, presets.size() > 1));
+
+        WatchFolderService watcher = new WatchFolderService(options.inputs, options.settleMillis);
+        watcher.setReportGrowing(options.follow);   // start with the recording, not after it
+
+        try {
+            watcher.start(file -> {
+                List<File> files = Presets.outputsFor(presets, file.getAbsoluteFile(),
+                        options.outputDir != null ? options.outputDir.getAbsoluteFile() : null);
+
+                for (ConversionJob job : scheduler.getActiveJobs()) {
+                    if (files.contains(job.getOutput().getAbsoluteFile())) {
+                        log("SKIP   " + file.getName() + ": output " + job.getOutput() + " is already being written");
+                        return;
+                    }
+                }
+
+                // Outputs written into a watched folder must not come back as new inputs
+                List<ConversionJob> group = new ArrayList<>();
+                for (int i = 0; i < presets.size(); i++) {
+                    watcher.ignore(files.get(i));
+                    group.add(newJob(options, file, files.get(i), presets.get(i)));
+                }
+
+                log("QUEUE  " + file.getName());
+                scheduler.submitGroup(group);
+            });
+        } catch (IOException e) {
+            err.println("Cannot watch folder: " + e.getMessage());
+            return EXIT_FAILED;
+        }
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            watcher.stop();
+            scheduler.cancelAll();
+            stopped.countDown();
+        }, "leonardo-cancel"));
+
+        log("Watching " + options.inputs.size() + " folder(s) for " + describe(presets) + " using "
+                + options.workers + " worker(s); Ctrl+C to stop");
+        for (File dir : options.inputs) {
+            log("       " + dir.getAbsolutePath());
+        }
+
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return EXIT_OK;
+    }
+
+    private static JobScheduler createScheduler(Options options, LogListener listener) {
+        JobScheduler scheduler = new JobScheduler(options.workers, listener);
+        new ProgressBus(scheduler, LOG_PERIOD_MILLIS).subscribe(listener);
+        scheduler.setStreamCopy(options.streamCopy);
+        scheduler.setReuseOutputs(!options.force);
+        scheduler.setResumable(options.resumable);
+        scheduler.setPreferHardware(options.hardware);
+        // A watch folder runs unattended all day, so by default it only takes idle time
+        scheduler.setPriority(options.priority != null ? options.priority
+                : options.command.equals("watch") ? ProcessPriority.BACKGROUND : ProcessPriority.NORMAL);
+        scheduler.setCpus(options.cpus);
+        scheduler.setSpeedTarget(options.target);
+        scheduler.setScratchDir(options.scratchDir);
+        DiskBudget.get().setWritersPerDisk(options.diskWriters);
+        return scheduler;
+    }
+
+    // One log line per start, finish and 10% step; total is 0 when it isn't known (watch mode)
+    private static final class LogListener implements JobScheduler.JobListener, ProgressBus.Subscriber {
+
+        private final int total;
+        private final boolean severalPerInput;
+        private final AtomicInteger finished = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+
+        // Only print every 10% so hundreds of jobs don't bury the log
+        private final Map<ConversionJob, Integer> lastReported = new ConcurrentHashMap<>();
+
+        // The whole queue's estimate as of the last sample, for the DONE lines
+        private volatile String queueEta = "";
+
+        LogListener(int total, boolean severalPerInput) {
+            this.total = total;
+            this.severalPerInput = severalPerInput;
+        }
+
+        void skipped() {
+            finished.incrementAndGet();
+            failed.incrementAndGet();
+        }
+
+        // With several presets per input the output is what tells the lines apart
+        private String name(ConversionJob job) {
+            return severalPerInput ? job.getOutput().getName() : job.getInput().getName();
+        }
+
+        @Override
+        public void jobStarted(ConversionJob job) {
+            StreamCopyPlanner.Plan plan = job.getPlan();
+            log("START  " + job.getInput().getName() + " -> " + job.getOutput()
+                    + (plan != null ? "  (" + plan.describe() + ")" : ""));
+        }
+
+        @Override
+        public void jobProgress(ConversionJob job) {
+            // Logged from the ProgressBus samples instead
+        }
+
+        @Override
+        public void progressSampled(ProgressBus.Sample sample) {
+            for (ConversionJob job : sample.getJobs()) {
+                if (job.getState() != ConversionJob.State.RUNNING) continue;
+
+                // Without a known end (a followed recording), report every minute encoded instead
+                ProgressEvent event = job.getLastEvent();
+                boolean open = event != null && event.getPercent() < 0;
+                int bucket = open ? -1 - (int) (event.getOutTimeSeconds() / 60) : job.getProgress() / 10;
+
+                Integer previous = lastReported.put(job, bucket);
+                if (previous == null || previous != bucket) {
+                    log(String.format("%s%-22s %s",
+                            open ? "live   " : String.format("%3d%%   ", job.getProgress()),
+                            EtaModel.get().summary(job), name(job)));
+                }
+            }
+
+            queueEta = EtaModel.get().estimate(sample.getJobs(), sample.getWorkerCount()).summary();
+        }
+
+        @Override
+        public void jobFinished(ConversionJob job) {
+            lastReported.remove(job);
+            int n = finished.incrementAndGet();
+            String count = total > 0 ? "[" + n + "/" + total + "] " : "[" + n + "] ";
+
+            switch (job.getState()) {
+                case DONE:
+                    String eta = queueEta;
+                    log("DONE   " + count + name(job)
+                            + (job.getMessage().isEmpty() ? "" : " (" + job.getMessage() + ")")
+                            + (eta.isEmpty() ? "" : "  [" + eta + "]"));
+                    break;
+                case CANCELLED:
+                    failed.incrementAndGet();
+                    log("CANCEL " + count + name(job));
+                    break;
+                default:
+                    failed.incrementAndGet();
+                    log("FAIL   " + count + name(job) + ": " + job.getMessage());
+            }
+        }
+    }
+
+    private static void addInput(List<File> inputs, File file) {
+
+        if (file.isDirectory()) {
+            File[] children = file.listFiles(File::isFile);
+            if (children != null) {
+                Arrays.sort(children);
+                inputs.addAll(Arrays.asList(children));
+            }
+            return;
+        }
+
+        if (!file.isFile()) {
+            throw new IllegalArgumentException("No such file: " + file);
+        }
+
+        inputs.add(file);
+    }
+
+    private static void addWatchDirectory(List<File> directories, File dir) {
+        if (!dir.isDirectory()) {
+            throw new IllegalArgumentException("Not a directory: " + dir);
+        }
+        directories.add(dir);
+    }
+
+    private static String requireValue(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[index];
+    }
+
+    // Presets this ffmpeg can't run as written say what is missing and what they'll use instead
+    private static void listPresets() {
+
+        CapabilityRegistry capabilities = CapabilityRegistry.get();
+
+        for (Preset preset : Presets.builtIn()) {
+            String note = "";
+            if (capabilities != null && !capabilities.missing(preset).isEmpty()) {
+                try {
+                    Preset adapted = capabilities.adapt(preset, false);
+                    note = "  (uses " + PresetArgs.videoCodec(adapted.getFfmpegArgs()) + ")";
+                } catch (IOException e) {
+                    note = "  (unavailable: " + String.join(", ", capabilities.missing(preset)) + ")";
+                }
+            }
+            out.println(preset.getName() + note);
+        }
+    }
+
+    private static ConversionJob newJob(Options options, File input, File output, Preset preset) {
+        ConversionJob job = new ConversionJob(input, output, preset, options.segments);
+        job.setFollow(options.follow);
+        return job;
+    }
+
+    // "YouTube H.264" / "YouTube H.264" + "DaVinci Resolve ..."
+    private static String describe(List<Preset> presets) {
+        StringBuilder sb = new StringBuilder();
+        for (Preset preset : presets) {
+            if (sb.length() > 0) sb.append(" + ");
+            sb.append('"').append(preset.getName()).append('"');
+        }
+        return sb.toString();
+    }
+
+    private static void log(String line) {
+        synchronized (out) {
+            out.println(line);
+        }
+    }
+
+    private static void printUsage(PrintStream stream) {
+        stream.println("Usage: leonardo convert --preset NAME [-j N] [-o DIR] FILE|DIR...");
+        stream.println("       leonardo watch --preset NAME [-j N] [-o DIR] [--settle SEC] DIR...");
+        stream.println();
+        stream.println("  -p, --preset NAME     Preset name (or unique prefix, case-insensitive); repeat it to");
+        stream.println("                        write several versions of each input from a single decode");
+        stream.println("  -j, --jobs N          Conversions to run at once (default "
+                + JobScheduler.defaultWorkerCount() + ")");
+        stream.println("  -o, --output-dir DIR  Write outputs here instead of next to each input");
+        stream.println("      --split           Encode long inputs as parallel keyframe-aligned chunks");
+        stream.println("      --segments N      Same as --split, with N chunks (default "
+                + SegmentedEncoder.defaultSegmentCount() + ", 0 = off)");
+        stream.println("      --resumable       Checkpoint long encodes; running the same command again resumes them");
+        stream.println("  -f, --force           Convert again even if an up-to-date output exists");
+        stream.println("      --hwenc           Use a hardware H.264/HEVC encoder when one works on this machine");
+        stream.println("      --scratch DIR     Encode into DIR (a fast disk) and move each finished output into place");
+        stream.println("      --disk-writers N  High-bitrate outputs (MJPEG, PCM) written at once per disk (default "
+                + DiskBudget.DEFAULT_WRITERS_PER_DISK + ")");
+        stream.println("      --target T        Finish each job within a time (15m, 1h30m) or at a speed (2x) by");
+        stream.println("                        choosing a faster x264/x265 -preset where the history says it's needed");
+        stream.println("      --priority CLASS  interactive, normal or background: CPU (nice) and disk (ionice)");
+        stream.println("                        priority of ffmpeg (default normal; watch: background)");
+        stream.println("      --cpus LIST       Keep ffmpeg on these CPUs, e.g. 4-15 or 0,2,4-7 (Linux, taskset)");
+        stream.println("      --no-copy         Always re-encode, even streams that already match the preset");
+        stream.println("      --follow          Convert recordings while they are still being written (MKV, TS, FLV);");
+        stream.println("                        watch: queue new files right away instead of after --settle");
+        stream.println("      --settle SEC      watch: queue a new file once it hasn't changed for SEC seconds (default "
+                + WatchFolderService.DEFAULT_SETTLE_MILLIS / 1000 + ")");
+        stream.println("      --list-presets    Print the available presets and exit");
+        stream.println();
+        stream.println("Run without arguments to start the " + AppInfo.NAME + " window.");
+    }
+}
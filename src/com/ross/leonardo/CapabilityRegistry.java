@@ -0,0 +1,457 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+// What the installed ffmpeg can actually do: its encoders, muxers and filters,
+// read once from "ffmpeg -encoders/-muxers/-filters" and cached under
+// ~/.leonardo/capabilities keyed by the binary's real path, size and mtime.
+// An ffmpeg upgrade is a new key; every other launch reads one small file.
+//
+// Jobs use it to fail early with a useful message instead of deep inside an
+// encode, and to swap the preset's encoder for a faster or an available one.
+public class CapabilityRegistry {
+
+    // Fastest first. Hardware encoders need a working device, which the listing
+    // can't tell, so those are test-encoded once before they are used. VAAPI is
+    // left out: it needs a device and hwupload filters the presets don't have.
+    private static final Map<String, List<String>> ENCODERS_BY_SPEED = Map.of(
+            "h264", List.of("h264_nvenc", "h264_qsv", "h264_amf", "libx264", "libopenh264"),
+            "hevc", List.of("hevc_nvenc", "hevc_qsv", "hevc_amf", "libx265"),
+            "aac", List.of("aac", "libfdk_aac"));
+
+    private static final Set<String> HARDWARE = Set.of(
+            "h264_nvenc", "h264_qsv", "h264_amf", "hevc_nvenc", "hevc_qsv", "hevc_amf");
+
+    // x264 -preset -> the nearest speed setting of each hardware family
+    private static final Map<String, String> NVENC_PRESETS = Map.of(
+            "ultrafast", "p1", "superfast", "p1", "veryfast", "p2", "faster", "p3",
+            "fast", "p4", "medium", "p5", "slow", "p6", "slower", "p7", "veryslow", "p7", "placebo", "p7");
+
+    private static final Map<String, String> QSV_PRESETS = Map.of(
+            "ultrafast", "veryfast", "superfast", "veryfast", "placebo", "veryslow");
+
+    private static final Map<String, String> AMF_QUALITY = Map.of(
+            "ultrafast", "speed", "superfast", "speed", "veryfast", "speed", "faster", "speed",
+            "fast", "balanced", "medium", "balanced");
+
+    private static final Set<String> CODEC_OPTIONS = Set.of(
+            "-c:v", "-vcodec", "-codec:v", "-c:a", "-acodec", "-codec:a", "-c", "-codec");
+
+    // Output extension -> muxer, for presets that don't name one with -f
+    private static final Map<String, String> MUXER_FOR_EXTENSION = Map.of(
+            ".mp4", "mp4", ".mov", "mov", ".mkv", "matroska", ".webm", "webm",
+            ".m4a", "ipod", ".mp3", "mp3", ".wav", "wav");
+
+    private static CapabilityRegistry instance;
+
+    // Binaries (by cache key) whose probe failed this session; asking again
+    // would rerun three ffmpeg processes under the class lock for every job
+    private static final Set<String> failed = new HashSet<>();
+
+    private final File cacheFile;
+    private final Set<String> encoders = new HashSet<>();
+    private final Set<String> muxers = new HashSet<>();
+    private final Set<String> filters = new HashSet<>();
+    private final Map<String, Boolean> working = new HashMap<>();
+
+    private CapabilityRegistry(File cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    // Loads (or probes) on first use; null if there is no usable ffmpeg on the PATH
+    public static synchronized CapabilityRegistry get() {
+        if (instance == null) {
+            File binary = findOnPath("ffmpeg");
+            if (binary == null) return null;
+
+            String key = cacheName(binary);
+            if (failed.contains(key)) return null;
+
+            CapabilityRegistry registry = new CapabilityRegistry(
+                    new File(AppPaths.resolve("capabilities"), key + ".txt"));
+            if (!registry.loadCache() && !registry.probe()) {
+                if (!Thread.currentThread().isInterrupted()) failed.add(key);   // an interrupt isn't an answer
+                return null;
+            }
+            instance = registry;
+        }
+        return instance;
+    }
+
+    // Loads or probes on a background thread, so the first job doesn't wait for it
+    public static void warmAsync() {
+        Thread t = new Thread(CapabilityRegistry::get, "leonardo-capabilities");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    public synchronized boolean hasEncoder(String name) {
+        return encoders.contains(name);
+    }
+
+    public synchronized boolean hasMuxer(String name) {
+        return muxers.contains(name);
+    }
+
+    public synchronized boolean hasFilter(String name) {
+        return filters.contains(name);
+    }
+
+    // Why this ffmpeg can't run the preset as written; empty if it can
+    public List<String> missing(Preset preset) {
+
+        List<String> problems = new ArrayList<>();
+        List<String> args = preset.getFfmpegArgs();
+
+        for (String codec : new String[] { PresetArgs.videoCodec(args), PresetArgs.audioCodec(args) }) {
+            if (codec != null && !codec.equals("copy") && !hasEncoder(codec)) {
+                problems.add("encoder " + codec);
+            }
+        }
+
+        String muxer = PresetArgs.value(args, "-f");
+        if (muxer == null) muxer = MUXER_FOR_EXTENSION.get(preset.getOutputExtension().toLowerCase(Locale.ROOT));
+        if (muxer != null && !hasMuxer(muxer)) {
+            problems.add("muxer " + muxer);
+        }
+
+        for (String chain : new String[] { PresetArgs.value(args, "-vf", "-filter:v"),
+                                           PresetArgs.value(args, "-af", "-filter:a") }) {
+            for (String filter : filterNames(chain)) {
+                if (!hasFilter(filter)) problems.add("filter " + filter);
+            }
+        }
+
+        return problems;
+    }
+
+    // The preset this ffmpeg should run: its own encoders when they are present
+    // (or the fastest working one of the same codec if preferFastest), otherwise
+    // the best available substitute with the rate control translated.
+    // Throws if something has no substitute.
+    public Preset adapt(Preset preset, boolean preferFastest) throws IOException {
+
+        List<String> args = preset.getFfmpegArgs();
+
+        String video = PresetArgs.videoCodec(args);
+        String videoChoice = choose(video, preferFastest);
+        String audio = PresetArgs.audioCodec(args);
+        String audioChoice = choose(audio, false);
+
+        Preset adapted = preset;
+        if (!Objects.equals(video, videoChoice) || !Objects.equals(audio, audioChoice)) {
+            List<String> translated = translate(args, video, videoChoice);
+            translated = translate(translated, audio, audioChoice);
+            adapted = new Preset(preset.getName(), preset.getOutputExtension(), List.copyOf(translated));
+        }
+
+        List<String> problems = missing(adapted);
+        if (!problems.isEmpty()) {
+            throw new IOException("This FFmpeg build lacks " + String.join(", ", problems)
+                    + " needed by \"" + preset.getName() + "\"");
+        }
+
+        return adapted;
+    }
+
+    private String choose(String encoder, boolean preferFastest) {
+
+        if (encoder == null || encoder.equals("copy")) return encoder;
+
+        boolean available = hasEncoder(encoder);
+        if (available && !preferFastest) return encoder;
+
+        List<String> candidates = ENCODERS_BY_SPEED.get(codecOf(encoder));
+        if (candidates == null) return encoder;   // nothing to swap with; missing() reports it
+
+        for (String candidate : candidates) {
+            if (candidate.equals(encoder) && available) return encoder;
+            if (hasEncoder(candidate) && works(candidate)) return candidate;
+        }
+        return encoder;
+    }
+
+    private static String codecOf(String encoder) {
+        for (Map.Entry<String, List<String>> entry : ENCODERS_BY_SPEED.entrySet()) {
+            if (entry.getValue().contains(encoder)) return entry.getKey();
+        }
+        return encoder;
+    }
+
+    // One tiny test encode per hardware encoder, remembered with the rest of the cache
+    private synchronized boolean works(String encoder) {
+
+        if (!HARDWARE.contains(encoder)) return true;
+
+        Boolean known = working.get(encoder);
+        if (known != null) return known;
+
+        boolean ok;
+        try {
+            new FFmpegRunner().capture(List.of(
+                    "ffmpeg", "-hide_banner", "-v", "error",
+                    "-f", "lavfi", "-i", "color=black:s=256x256:d=0.1",
+                    "-frames:v", "1", "-c:v", encoder,
+                    "-f", "null", "-"));
+            ok = true;
+        } catch (IOException e) {
+            ok = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;   // don't remember an answer we never got
+        }
+
+        working.put(encoder, ok);
+        saveCache();
+        return ok;
+    }
+
+    // The presets are written for libx264; rewrite the rate control and speed
+    // options into what the substitute encoder understands
+    static List<String> translate(List<String> args, String from, String to) {
+
+        if (from == null || from.equals(to)) return args;
+
+        List<String> result = new ArrayList<>();
+        String speed = null;
+        String quality = null;
+
+        for (int i = 0; i + 1 < args.size(); i += 2) {
+            String option = args.get(i);
+            String value = args.get(i + 1);
+
+            if (value.equals(from) && CODEC_OPTIONS.contains(option)) {
+                value = to;
+            }
+
+            if (HARDWARE.contains(to) && !HARDWARE.contains(from)) {
+                switch (option) {
+                    case "-preset":      speed = value; continue;
+                    case "-crf":         quality = value; continue;
+                    case "-tune":
+                    case "-x264-params":
+                    case "-x264opts":    continue;
+                    case "-level":
+                    case "-level:v":
+                        if (to.endsWith("_qsv")) value = value.replace(".", "");
+                        break;
+                    default:
+                        break;
+                }
+            } else if (to.equals("libopenh264")) {
+                switch (option) {
+                    case "-preset":
+                    case "-tune":
+                    case "-x264-params":
+                    case "-x264opts":    continue;
+                    case "-crf":         quality = value; continue;
+                    default:
+                        break;
+                }
+            }
+
+            result.add(option);
+            result.add(value);
+        }
+
+        if (to.endsWith("_nvenc")) {
+            if (speed != null) addOption(result, "-preset", NVENC_PRESETS.getOrDefault(speed, "p5"));
+            if (quality != null) addOptions(result, "-rc", "vbr", "-cq", quality, "-b:v", "0");
+        } else if (to.endsWith("_qsv")) {
+            if (speed != null) addOption(result, "-preset", QSV_PRESETS.getOrDefault(speed, speed));
+            if (quality != null) addOption(result, "-global_quality", quality);
+        } else if (to.endsWith("_amf")) {
+            if (speed != null) addOption(result, "-quality", AMF_QUALITY.getOrDefault(speed, "quality"));
+            if (quality != null) addOptions(result, "-rc", "cqp", "-qp_i", quality, "-qp_p", quality, "-qp_b", quality);
+        } else if (to.equals("libopenh264") && quality != null) {
+            // No constant-quality mode; pick a bitrate in the same ballpark as the CRF
+            int crf = Integer.parseInt(quality.replaceAll("\\..*", ""));
+            addOption(result, "-b:v", crf <= 18 ? "12M" : crf <= 22 ? "8M" : "5M");
+        }
+
+        return result;
+    }
+
+    private static void addOption(List<String> args, String option, String value) {
+        args.add(option);
+        args.add(value);
+    }
+
+    private static void addOptions(List<String> args, String... pairs) {
+        for (int i = 0; i + 1 < pairs.length; i += 2) {
+            addOption(args, pairs[i], pairs[i + 1]);
+        }
+    }
+
+    // "crop=...,scale=1080:1920" -> crop, scale (labels and options stripped)
+    static List<String> filterNames(String chain) {
+        List<String> names = new ArrayList<>();
+        if (chain == null) return names;
+
+        for (String part : chain.split("[,;]")) {
+            String name = part.replaceAll("\\[[^\\]]*\\]", "").trim();
+            int eq = name.indexOf('=');
+            if (eq >= 0) name = name.substring(0, eq);
+            if (!name.isEmpty() && name.matches("[A-Za-z0-9_]+")) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    private boolean probe() {
+        try {
+            FFmpegRunner runner = new FFmpegRunner();
+            parseEncoders(runner.capture(List.of("ffmpeg", "-hide_banner", "-encoders")));
+            parseMuxers(runner.capture(List.of("ffmpeg", "-hide_banner", "-muxers")));
+            parseFilters(runner.capture(List.of("ffmpeg", "-hide_banner", "-filters")));
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        if (encoders.isEmpty()) return false;
+        saveCache();
+
+        // A new key means ffmpeg was upgraded or replaced; the old answers are dead weight
+        File[] stale = cacheFile.getParentFile().listFiles((dir, name) ->
+                name.endsWith(".txt") && !name.equals(cacheFile.getName()));
+        if (stale != null) {
+            for (File file : stale) {
+                file.delete();
+            }
+        }
+        return true;
+    }
+
+    // " V....D libx264   libx264 H.264 / AVC ..." after the " ------" line
+    private void parseEncoders(String output) {
+        boolean table = false;
+        for (String line : output.split("\n")) {
+            String[] parts = line.trim().split("\\s+");
+            if (!table) {
+                table = parts.length == 1 && parts[0].startsWith("---");
+            } else if (parts.length >= 2) {
+                encoders.add(parts[1]);
+            }
+        }
+    }
+
+    // "  E mp4    MP4 (MPEG-4 Part 14)" after the " --" line; some rows list several names
+    private void parseMuxers(String output) {
+        boolean table = false;
+        for (String line : output.split("\n")) {
+            String[] parts = line.trim().split("\\s+");
+            if (!table) {
+                table = parts.length == 1 && parts[0].startsWith("--");
+            } else if (parts.length >= 2 && parts[0].contains("E")) {
+                for (String name : parts[1].split(",")) {
+                    muxers.add(name);
+                }
+            }
+        }
+    }
+
+    // " ..C crop   V->V   Crop the input video." (the legend lines have no "->")
+    private void parseFilters(String output) {
+        for (String line : output.split("\n")) {
+            String[] parts = line.trim().split("\\s+");
+            if (parts.length >= 3 && parts[2].contains("->")) {
+                filters.add(parts[1]);
+            }
+        }
+    }
+
+    private synchronized boolean loadCache() {
+
+        if (!cacheFile.isFile()) return false;
+
+        try {
+            for (String line : Files.readAllLines(cacheFile.toPath(), StandardCharsets.UTF_8)) {
+                String[] parts = line.split("\t");
+                if (parts.length < 2) continue;
+                switch (parts[0]) {
+                    case "encoder": encoders.add(parts[1]); break;
+                    case "muxer":   muxers.add(parts[1]); break;
+                    case "filter":  filters.add(parts[1]); break;
+                    case "works":
+                        if (parts.length == 3) working.put(parts[1], Boolean.parseBoolean(parts[2]));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } catch (IOException e) {
+            return false;
+        }
+
+        return !encoders.isEmpty();
+    }
+
+    // Temp file + rename, like the other caches
+    private synchronized void saveCache() {
+
+        StringBuilder sb = new StringBuilder();
+        encoders.forEach(e -> sb.append("encoder\t").append(e).append('\n'));
+        muxers.forEach(m -> sb.append("muxer\t").append(m).append('\n'));
+        filters.forEach(f -> sb.append("filter\t").append(f).append('\n'));
+        working.forEach((e, ok) -> sb.append("works\t").append(e).append('\t').append(ok).append('\n'));
+
+        try {
+            Path dir = cacheFile.getParentFile().toPath();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, "caps-", ".tmp");
+            Files.writeString(tmp, sb, StandardCharsets.UTF_8);
+            Files.move(tmp, cacheFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Probing again next launch is the only cost
+        }
+    }
+
+    // The binary ProcessBuilder would run, through any symlinks (distros link /usr/bin/ffmpeg)
+    private static File findOnPath(String name) {
+        String path = System.getenv("PATH");
+        if (path == null) return null;
+
+        for (String dir : path.split(File.pathSeparator)) {
+            File candidate = new File(dir, name);
+            if (candidate.isFile() && candidate.canExecute()) {
+                try {
+                    return candidate.toPath().toRealPath().toFile();
+                } catch (IOException e) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String cacheName(File binary) {
+        String key = binary.getAbsolutePath() + "|" + binary.length() + "|" + binary.lastModified();
+        return Digests.sha1(key);
+    }
+}
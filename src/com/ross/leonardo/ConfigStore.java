@@ -0,0 +1,123 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// config.properties with write-behind: save() only marks the settings dirty,
+// and one background thread writes them out a moment later. A burst of
+// changes (a queue of jobs, clicking through themes) becomes a single write,
+// and the EDT never waits on the disk. Writes go to a temp file that is
+// renamed over the old one, so a crash never leaves a half-written config.
+public class ConfigStore {
+
+    // Long enough to swallow a burst, short enough that a kill -9 loses almost nothing
+    private static final long WRITE_DELAY_MILLIS = 500;
+
+    private final File file;
+    private final Properties properties = new Properties();
+    private final ScheduledExecutorService writer;
+    private final Object writeLock = new Object();   // one write at a time, in order
+    private boolean dirty;
+
+    public ConfigStore(File file) {
+        this.file = file;
+
+        if (file.isFile()) {
+            try (FileInputStream in = new FileInputStream(file)) {
+                properties.load(in);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "leonardo-config-writer");
+            t.setDaemon(true);
+            return t;
+        });
+
+        // Whatever is still pending when the app exits is written on the way out
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "leonardo-config-flush"));
+    }
+
+    public String getProperty(String key) {
+        return properties.getProperty(key);
+    }
+
+    public String getProperty(String key, String defaultValue) {
+        return properties.getProperty(key, defaultValue);
+    }
+
+    public void setProperty(String key, String value) {
+        properties.setProperty(key, value);
+    }
+
+    public void remove(String key) {
+        properties.remove(key);
+    }
+
+    // Schedules a write unless one is already on its way
+    public synchronized void save() {
+        if (dirty) return;
+        dirty = true;
+        writer.schedule(this::flush, WRITE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    // Writes now if anything changed since the last write
+    public void flush() {
+        synchronized (writeLock) {
+            Properties snapshot = new Properties();
+            synchronized (this) {
+                if (!dirty) return;
+                dirty = false;
+                snapshot.putAll(properties);
+            }
+            write(snapshot);
+        }
+    }
+
+    private void write(Properties snapshot) {
+
+        Path tmp = null;
+        try {
+            Path dir = file.getAbsoluteFile().getParentFile().toPath();
+            Files.createDirectories(dir);
+            tmp = Files.createTempFile(dir, "config-", ".tmp");
+
+            try (FileOutputStream out = new FileOutputStream(tmp.toFile())) {
+                snapshot.store(out, AppInfo.NAME + " Configuration");
+                out.getFD().sync();
+            }
+            Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            tmp = null;
+
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                    // The next write replaces it anyway
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Remembers which outputs were produced from which input content with which
+// ffmpeg arguments, so re-running a folder doesn't re-encode what is already
+// there. One manifest file per (content hash, preset args) under
+// ~/.leonardo/conversions, listing every output written for it.
+//
+// The content hash samples the input instead of reading it whole: size plus
+// three memory-mapped blocks from the head, middle and tail. That is enough to
+// tell apart two recordings (or a trimmed copy) and costs a few page faults
+// instead of reading a 40 GB file.
+public class ConversionCache {
+
+    private static final int SAMPLE_BYTES = 1 << 20;
+    private static final int MEMORY_ENTRIES = 2000;
+
+    private static final ConversionCache INSTANCE = new ConversionCache(AppPaths.resolve("conversions"));
+
+    private final File manifestDir;
+
+    // path|size|mtime -> content hash, so a job hashes its input once
+    private final Map<String, String> hashes = Collections.synchronizedMap(
+            new LinkedHashMap<String, String>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > MEMORY_ENTRIES;
+                }
+            });
+
+    public ConversionCache(File manifestDir) {
+        this.manifestDir = manifestDir;
+    }
+
+    public static ConversionCache get() {
+        return INSTANCE;
+    }
+
+    // Makes output up to date without ffmpeg if the manifest allows it. Returns
+    // a short note for the job ("Already converted", "Linked from ...") or null
+    // when the job has to run.
+    public String reuse(File input, Preset preset, File output) {
+
+        String key;
+        try {
+            key = key(input, preset);
+        } catch (IOException e) {
+            return null;
+        }
+
+        synchronized (this) {
+            List<Entry> entries = read(key);
+
+            for (Entry entry : entries) {
+                if (entry.path.equals(output.getAbsolutePath()) && entry.matches()) {
+                    return "Already converted";
+                }
+            }
+
+            // A matching output elsewhere (another output folder, a renamed copy of the input)
+            if (output.exists()) return null;
+
+            for (Entry entry : entries) {
+                if (!entry.matches()) continue;
+                try {
+                    Files.createLink(output.toPath(), entry.file().toPath());
+                } catch (IOException | UnsupportedOperationException e) {
+                    continue;   // other file system, or no hard links there: encode instead
+                }
+                record(key, entries, output);
+                return "Linked from " + entry.path;
+            }
+        }
+
+        return null;
+    }
+
+    // After a successful conversion
+    public void recordOutput(File input, Preset preset, File output) {
+        try {
+            String key = key(input, preset);
+            synchronized (this) {
+                record(key, read(key), output);
+            }
+        } catch (IOException e) {
+            // Only costs a re-encode next time
+        }
+    }
+
+    // ffmpeg -y truncates the existing file in place, which would rewrite every
+    // hard-linked sibling too. Unlink a shared output before it is re-encoded.
+    public static void detach(File output) {
+        try {
+            Object links = Files.getAttribute(output.toPath(), "unix:nlink");
+            if (links instanceof Integer && (Integer) links > 1) {
+                Files.delete(output.toPath());
+            }
+        } catch (IOException | UnsupportedOperationException | IllegalArgumentException e) {
+            // No such file, or no unix attributes (and so no links we made)
+        }
+    }
+
+    // SHA-256 over the size and the head, middle and tail blocks
+    public String contentHash(File input) throws IOException {
+
+        String memoKey = input.getAbsolutePath() + "|" + input.length() + "|" + input.lastModified();
+        String cached = hashes.get(memoKey);
+        if (cached != null) return cached;
+
+        MessageDigest digest = Digests.get("SHA-256");
+
+        try (FileChannel channel = FileChannel.open(input.toPath(), StandardOpenOption.READ)) {
+
+            long size = channel.size();
+            digest.update(Long.toString(size).getBytes(StandardCharsets.US_ASCII));
+
+            if (size <= 3L * SAMPLE_BYTES) {
+                sample(channel, digest, 0, size);
+            } else {
+                sample(channel, digest, 0, SAMPLE_BYTES);
+                sample(channel, digest, size / 2 - SAMPLE_BYTES / 2, SAMPLE_BYTES);
+                sample(channel, digest, size - SAMPLE_BYTES, SAMPLE_BYTES);
+            }
+        }
+
+        String hash = Digests.hex(digest.digest());
+        hashes.put(memoKey, hash);
+        return hash;
+    }
+
+    private static void sample(FileChannel channel, MessageDigest digest, long position, long length)
+            throws IOException {
+        if (length <= 0) return;
+        MappedByteBuffer block = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        digest.update(block);
+    }
+
+    // Content hash plus the exact argument list: a different CRF is a different output
+    private String key(File input, Preset preset) throws IOException {
+        MessageDigest digest = Digests.get("SHA-256");
+        digest.update(contentHash(input).getBytes(StandardCharsets.US_ASCII));
+        for (String arg : preset.getFfmpegArgs()) {
+            digest.update((byte) 0);
+            digest.update(arg.getBytes(StandardCharsets.UTF_8));
+        }
+        return Digests.hex(digest.digest());
+    }
+
+    private void record(String key, List<Entry> entries, File output) {
+
+        List<Entry> updated = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (!entry.path.equals(output.getAbsolutePath()) && entry.file().exists()) {
+                updated.add(entry);
+            }
+        }
+        updated.add(new Entry(output.getAbsolutePath(), output.length(), output.lastModified()));
+
+        StringBuilder sb = new StringBuilder();
+        for (Entry entry : updated) {
+            sb.append(entry.size).append('\t').append(entry.lastModified).append('\t')
+                    .append(entry.path).append('\n');
+        }
+
+        // Temp file + rename, like the probe cache
+        try {
+            Files.createDirectories(manifestDir.toPath());
+            Path tmp = Files.createTempFile(manifestDir.toPath(), "manifest-", ".tmp");
+            Files.writeString(tmp, sb, StandardCharsets.UTF_8);
+            Files.move(tmp, manifestFile(key).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Read-only home directory: nothing is remembered
+        }
+    }
+
+    private List<Entry> read(String key) {
+
+        List<Entry> entries = new ArrayList<>();
+        File file = manifestFile(key);
+        if (!file.isFile()) return entries;
+
+        try {
+            for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                String[] parts = line.split("\t", 3);
+                if (parts.length != 3) continue;
+                try {
+                    entries.add(new Entry(parts[2], Long.parseLong(parts[0]), Long.parseLong(parts[1])));
+                } catch (NumberFormatException ignored) {
+                    // Damaged line
+                }
+            }
+        } catch (IOException e) {
+            // Unreadable manifest, treat as empty
+        }
+
+        return entries;
+    }
+
+    private File manifestFile(String key) {
+        return new File(manifestDir, key + ".tsv");
+    }
+
+    // An output as it was right after it was written; any later edit invalidates it
+    private static final class Entry {
+
+        private final String path;
+        private final long size;
+        private final long lastModified;
+
+        Entry(String path, long size, long lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        File file() {
+            return new File(path);
+        }
+
+        boolean matches() {
+            File f = file();
+            return f.isFile() && f.length() == size && f.lastModified() == lastModified;
+        }
+    }
+}
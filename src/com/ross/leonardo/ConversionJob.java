@@ -0,0 +1,178 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.io.File;
+
+// One queued input -> output conversion, as tracked by the JobScheduler
+public class ConversionJob {
+
+    public enum State {
+        PENDING, RUNNING, DONE, FAILED, CANCELLED;
+
+        public boolean isFinished() {
+            return this == DONE || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final File input;
+    private final File output;
+    private final Preset preset;
+    private final int segments;
+
+    private volatile State state = State.PENDING;
+    private volatile int progress;
+    private volatile ProgressEvent lastEvent;
+    private volatile String message = "";
+    private volatile VideoConverter converter;
+    private volatile StreamCopyPlanner.Plan plan;
+    private volatile boolean follow;
+    private volatile ProcessPriority priority;
+    private volatile SpeedTarget speedTarget;
+    private volatile Object group;
+
+    public ConversionJob(File input, File output, Preset preset) {
+        this(input, output, preset, 0);
+    }
+
+    // segments > 1 enables chunked encoding for long inputs (see SegmentedEncoder)
+    public ConversionJob(File input, File output, Preset preset, int segments) {
+        this.input = input;
+        this.output = output;
+        this.preset = preset;
+        this.segments = segments;
+    }
+
+    public File getInput() {
+        return input;
+    }
+
+    public File getOutput() {
+        return output;
+    }
+
+    public Preset getPreset() {
+        return preset;
+    }
+
+    public int getSegments() {
+        return segments;
+    }
+
+    // The input may still be recording: convert it as it grows (set before submitting)
+    public void setFollow(boolean follow) {
+        this.follow = follow;
+    }
+
+    public boolean isFollow() {
+        return follow;
+    }
+
+    // null runs the job at the scheduler's default priority (set before submitting)
+    public void setPriority(ProcessPriority priority) {
+        this.priority = priority;
+    }
+
+    public ProcessPriority getPriority() {
+        return priority;
+    }
+
+    // null uses the scheduler's default target, if any (set before submitting)
+    public void setSpeedTarget(SpeedTarget speedTarget) {
+        this.speedTarget = speedTarget;
+    }
+
+    public SpeedTarget getSpeedTarget() {
+        return speedTarget;
+    }
+
+    // Shared by the jobs of one JobScheduler.submitGroup call, which run as a
+    // single ffmpeg pass on one worker; null for a job on its own
+    void setGroup(Object group) {
+        this.group = group;
+    }
+
+    public Object getGroup() {
+        return group;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public int getProgress() {
+        return progress;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void cancel() {
+        synchronized (this) {
+            if (state.isFinished()) return;
+            state = State.CANCELLED;
+        }
+
+        VideoConverter c = converter;
+        if (c != null) {
+            c.cancel();
+        }
+    }
+
+    // Called by the scheduler's worker thread; returns false if the job was cancelled while queued
+    synchronized boolean start(VideoConverter converter) {
+        if (state != State.PENDING) return false;
+        this.converter = converter;
+        this.state = State.RUNNING;
+        return true;
+    }
+
+    // Fails a job that hasn't started yet (its input turned out to be unusable)
+    synchronized boolean reject(String message) {
+        if (state != State.PENDING) return false;
+        this.state = State.FAILED;
+        this.message = message;
+        return true;
+    }
+
+    // Which streams are copied and which re-encoded; null until the job starts
+    public StreamCopyPlanner.Plan getPlan() {
+        return plan;
+    }
+
+    void setPlan(StreamCopyPlanner.Plan plan) {
+        this.plan = plan;
+    }
+
+    // Latest ffmpeg progress snapshot, or null before the first one arrives
+    public ProgressEvent getLastEvent() {
+        return lastEvent;
+    }
+
+    void progressChanged(ProgressEvent event) {
+        this.lastEvent = event;
+        int percent = event.getPercent();
+        if (percent >= 0) {
+            this.progress = percent;
+        }
+    }
+
+    synchronized void finish(State state, String message) {
+        this.converter = null;
+        if (this.state == State.CANCELLED) return;
+        this.state = state;
+        this.message = message != null ? message : "";
+    }
+
+    @Override
+    public String toString() {
+        return input.getName() + " -> " + output.getName() + " [" + state + "]";
+    }
+}
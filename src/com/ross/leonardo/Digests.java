@@ -0,0 +1,40 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+// Hex digests for cache keys and file names
+public final class Digests {
+
+    private Digests() {
+        // Prevent instantiation
+    }
+
+    // Every JVM ships SHA-1 and SHA-256, so a missing one is a broken runtime
+    public static MessageDigest get(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static String hex(byte[] bytes) {
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    // SHA-1 of the text as UTF-8, as 40 hex digits
+    public static String sha1(String text) {
+        return hex(get("SHA-1").digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+// Disk space and write slots for the outputs of running jobs, per filesystem.
+// A job reserves the size its outputs are expected to reach before ffmpeg
+// starts. One that can't fit waits while other jobs on that disk are still
+// running (they may be over-estimated, or their scratch files may move away)
+// and fails once it is alone and still can't, instead of at 95%.
+//
+// Outputs that write fast (MJPEG, PCM, big stream copies) also take a write
+// slot on their filesystem. A few of those at once turn a spinning disk into
+// a seek storm where all of them crawl; the rest wait for a slot instead.
+public final class DiskBudget {
+
+    public static final int DEFAULT_WRITERS_PER_DISK = 2;
+
+    // Above this an output is a heavy writer: ~40 Mbit/s, around where a HDD
+    // starts to suffer from a second stream
+    private static final long HEAVY_BYTES_PER_SECOND = 5_000_000;
+
+    // Estimates are rough; leave room for being wrong and for the rest of the system
+    private static final double SAFETY = 1.2;
+    private static final long HEADROOM_BYTES = 512L << 20;
+
+    // Free space changes without us (other programs, deleted files): look again now and then
+    private static final long RECHECK_MILLIS = 2000;
+
+    private static final DiskBudget INSTANCE = new DiskBudget(DEFAULT_WRITERS_PER_DISK);
+
+    // One file about to be written
+    public static final class Need {
+
+        private final File file;
+        private final long bytes;
+        private final boolean heavy;
+
+        // bytes = 0 when the size can't be estimated; heavy takes a write slot
+        public Need(File file, long bytes, boolean heavy) {
+            this.file = file;
+            this.bytes = bytes;
+            this.heavy = heavy;
+        }
+    }
+
+    public final class Lease implements AutoCloseable {
+
+        private final List<Claim> claims;
+        private boolean released;
+
+        private Lease(List<Claim> claims) {
+            this.claims = claims;
+        }
+
+        @Override
+        public void close() {
+            release(this);
+        }
+    }
+
+    private static final class Claim {
+        final FileStore store;
+        final File file;
+        final long bytes;
+        final boolean heavy;
+
+        Claim(FileStore store, Need need) {
+            this.store = store;
+            this.file = need.file;
+            this.bytes = need.bytes;
+            this.heavy = need.heavy;
+        }
+
+        // What is still to come; the written part already shows in the free space
+        long remaining() {
+            return Math.max(0, bytes - file.length());
+        }
+    }
+
+    private final List<Claim> active = new ArrayList<>();
+    private final Map<FileStore, Integer> writers = new HashMap<>();
+    private int writersPerDisk;
+
+    public DiskBudget(int writersPerDisk) {
+        this.writersPerDisk = writersPerDisk;
+    }
+
+    public static DiskBudget get() {
+        return INSTANCE;
+    }
+
+    // Heavy writers allowed at once on one filesystem (1 for a single HDD, more for SSDs and arrays)
+    public synchronized void setWritersPerDisk(int writersPerDisk) {
+        if (writersPerDisk < 1) throw new IllegalArgumentException("writers per disk must be at least 1");
+        this.writersPerDisk = writersPerDisk;
+        notifyAll();
+    }
+
+    public synchronized int getWritersPerDisk() {
+        return writersPerDisk;
+    }
+
+    // Reserves space and write slots for all of needs, waiting until they are
+    // free. Throws when a filesystem can't hold them even with nothing else running.
+    // Returns null if cancelled says so while waiting.
+    public Lease acquire(List<Need> needs, BooleanSupplier cancelled) throws IOException, InterruptedException {
+
+        Map<FileStore, List<Need>> byStore = new LinkedHashMap<>();
+        for (Need need : needs) {
+            byStore.computeIfAbsent(storeOf(need.file), k -> new ArrayList<>()).add(need);
+        }
+
+        synchronized (this) {
+            while (true) {
+                if (cancelled.getAsBoolean()) return null;
+                boolean ready = true;
+
+                for (Map.Entry<FileStore, List<Need>> e : byStore.entrySet()) {
+                    FileStore store = e.getKey();
+                    long bytes = 0;
+                    int heavy = 0;
+                    for (Need need : e.getValue()) {
+                        bytes += Math.max(0, need.bytes - need.file.length());   // an old output is overwritten
+                        if (need.heavy) heavy++;
+                    }
+
+                    long free = store.getUsableSpace() - HEADROOM_BYTES;
+                    long promised = 0;
+                    boolean shared = false;
+                    for (Claim claim : active) {
+                        if (claim.store.equals(store)) {
+                            promised += claim.remaining();
+                            shared = true;
+                        }
+                    }
+
+                    if (bytes > free - promised) {
+                        if (!shared) {
+                            throw new IOException("Not enough space on " + describe(store, e.getValue().get(0).file)
+                                    + ": needs about " + formatSize(bytes) + ", " + formatSize(Math.max(0, free))
+                                    + " free");
+                        }
+                        ready = false;
+                    }
+
+                    // A job may always write alone, however many heavy outputs it has
+                    int running = writers.getOrDefault(store, 0);
+                    if (heavy > 0 && running > 0 && running + heavy > writersPerDisk) {
+                        ready = false;
+                    }
+                }
+
+                if (ready) break;
+                wait(RECHECK_MILLIS);
+            }
+
+            List<Claim> claims = new ArrayList<>();
+            for (Map.Entry<FileStore, List<Need>> e : byStore.entrySet()) {
+                for (Need need : e.getValue()) {
+                    Claim claim = new Claim(e.getKey(), need);
+                    claims.add(claim);
+                    active.add(claim);
+                    if (claim.heavy) writers.merge(claim.store, 1, Integer::sum);
+                }
+            }
+            return new Lease(claims);
+        }
+    }
+
+    private synchronized void release(Lease lease) {
+        if (lease.released) return;
+        lease.released = true;
+        for (Claim claim : lease.claims) {
+            active.remove(claim);
+            if (claim.heavy) writers.merge(claim.store, -1, Integer::sum);
+        }
+        notifyAll();
+    }
+
+    // Expected size of what the preset makes of this input, in bytes; 0 when unknown.
+    // Earlier runs of the preset (JobMetrics) beat the rules of thumb below.
+    public static long estimateBytes(Preset preset, MediaInfo info) {
+
+        if (preset == null || info == null || info.getDurationSeconds() <= 0) return 0;
+        double duration = info.getDurationSeconds();
+        MediaInfo.Stream video = info.firstVideoStream();
+        long pixels = video != null ? (long) video.getWidth() * video.getHeight() : 0;
+
+        double perSecond = measuredBytesPerSecond(preset, pixels);
+        if (perSecond <= 0) {
+            perSecond = (videoBitsPerSecond(preset.getFfmpegArgs(), info) + audioBitsPerSecond(preset.getFfmpegArgs(), info)) / 8;
+        }
+        return (long) (perSecond * duration * SAFETY);
+    }
+
+    // Whether an output of this size and length needs a write slot
+    public static boolean isHeavy(long bytes, MediaInfo info) {
+        return info != null && info.getDurationSeconds() > 0
+                && bytes / info.getDurationSeconds() > HEAVY_BYTES_PER_SECOND;
+    }
+
+    // Median bytes per media second of the preset's recent runs, scaled to this input's frame size
+    private static double measuredBytesPerSecond(Preset preset, long pixels) {
+
+        List<Double> samples = new ArrayList<>();
+        List<JobMetrics.Record> history = JobMetrics.get().history();
+        for (int i = history.size() - 1; i >= 0 && samples.size() < 10; i--) {
+            JobMetrics.Record record = history.get(i);
+            if (!record.getPreset().equals(preset.getName())
+                    || !record.getState().equals(ConversionJob.State.DONE.name())
+                    || record.getMediaSeconds() <= 0 || record.getOutputBytes() <= 0) continue;
+
+            double perSecond = record.getOutputBytes() / record.getMediaSeconds();
+            if (pixels > 0 && record.getPixels() > 0 && !"copy".equals(record.getEncoder())) {
+                perSecond *= (double) pixels / record.getPixels();
+            }
+            samples.add(perSecond);
+        }
+
+        if (samples.isEmpty()) return 0;
+        Collections.sort(samples);
+        return samples.get(samples.size() / 2);
+    }
+
+    private static double videoBitsPerSecond(List<String> args, MediaInfo info) {
+
+        MediaInfo.Stream video = info.firstVideoStream();
+        if (video == null || args.contains("-vn")) return 0;
+
+        String codec = PresetArgs.videoCodec(args);
+        if ("copy".equals(codec)) {
+            if (video.getBitRate() > 0) return video.getBitRate();
+            // Unknown per stream (MKV): the whole file's rate is close enough
+            return info.getBitRate() > 0 ? info.getBitRate() : 0;
+        }
+
+        double bitrate = parseBitrate(PresetArgs.value(args, "-b:v"));
+        if (bitrate > 0) return bitrate;
+
+        double pixelsPerSecond = (double) video.getWidth() * video.getHeight()
+                * (video.getFrameRate() > 0 ? video.getFrameRate() : 30);
+
+        // Bits per pixel: MJPEG around 2 at -q:v 2 and falling with q; x264 about
+        // 0.1 at CRF 18, halving every 6 CRF; x265 about half of that
+        double bitsPerPixel;
+        if ("mjpeg".equals(codec)) {
+            bitsPerPixel = 4.0 / Math.max(1, parseNumber(PresetArgs.value(args, "-q:v", "-qscale:v"), 2));
+        } else {
+            double crf = parseNumber(PresetArgs.value(args, "-crf", "-cq", "-global_quality", "-qp_i"), 23);
+            bitsPerPixel = 0.1 * Math.pow(2, (18 - crf) / 6);
+            if (codec != null && (codec.contains("265") || codec.contains("hevc"))) bitsPerPixel /= 2;
+        }
+        return pixelsPerSecond * bitsPerPixel;
+    }
+
+    private static double audioBitsPerSecond(List<String> args, MediaInfo info) {
+
+        MediaInfo.Stream audio = info.firstAudioStream();
+        if (audio == null || args.contains("-an")) return 0;
+
+        String codec = PresetArgs.audioCodec(args);
+        if ("copy".equals(codec)) {
+            return audio.getBitRate() > 0 ? audio.getBitRate() : 192_000;
+        }
+        if (codec != null && codec.startsWith("pcm_")) {
+            int bits = codec.contains("24") ? 24 : codec.contains("32") || codec.contains("f32") ? 32 : 16;
+            int rate = audio.getSampleRate() > 0 ? audio.getSampleRate() : 48000;
+            int channels = audio.getChannels() > 0 ? audio.getChannels() : 2;
+            return (double) rate * channels * bits;
+        }
+
+        double bitrate = parseBitrate(PresetArgs.value(args, "-b:a"));
+        return bitrate > 0 ? bitrate : 128_000;
+    }
+
+    // "192k", "12M", "5000000" -> bits per second; 0 if absent or unreadable
+    static double parseBitrate(String value) {
+        if (value == null || value.isEmpty()) return 0;
+        String s = value.trim().toLowerCase(Locale.ROOT);
+        double unit = 1;
+        if (s.endsWith("k")) unit = 1e3;
+        if (s.endsWith("m")) unit = 1e6;
+        if (s.endsWith("g")) unit = 1e9;
+        if (unit > 1) s = s.substring(0, s.length() - 1);
+        try {
+            return Double.parseDouble(s) * unit;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static double parseNumber(String value, double fallback) {
+        if (value == null) return fallback;
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    // The filesystem a file will be created on; its folder may not exist yet
+    static FileStore storeOf(File file) throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        while (dir != null && !dir.exists()) {
+            dir = dir.getParentFile();
+        }
+        if (dir == null) throw new IOException("No existing folder above " + file);
+        return Files.getFileStore(dir.toPath());
+    }
+
+    private static String describe(FileStore store, File file) {
+        String name = store.toString();
+        return name.isEmpty() ? file.getAbsoluteFile().getParent() : name;
+    }
+
+    static String formatSize(long bytes) {
+        if (bytes >= 1L << 30) return String.format(Locale.ROOT, "%.1f GB", bytes / (double) (1L << 30));
+        if (bytes >= 1L << 20) return String.format(Locale.ROOT, "%.0f MB", bytes / (double) (1L << 20));
+        return String.format(Locale.ROOT, "%.0f KB", bytes / 1024.0);
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.io.File;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// How long conversions will take. Before a job starts, the answer comes from
+// how fast earlier jobs like it ran on this machine (JobMetrics); once it
+// runs, its own speed takes over as more of it is done.
+//
+// "Like it" means, most specific first: the same preset and encoder on input
+// of the same codec, resolution and length class; the same preset at that
+// resolution; the same preset at any resolution; any preset with the same
+// encoder and -preset tier. The first of those with enough runs is used,
+// scaled by pixels per frame where the resolution differs.
+//
+// Never blocks, so the queue table can ask on the EDT: history comes from
+// JobMetrics' published snapshot, and inputs that haven't been probed yet
+// are probed in the background. Both count as unknown until they are there.
+public class EtaModel {
+
+    // Recent runs an estimate is based on, and how many make it trustworthy
+    private static final int SAMPLES = 20;
+    private static final int ENOUGH_SAMPLES = 3;
+
+    // Media seconds encoded after which live speed and history count equally
+    private static final double LIVE_WEIGHT_SECONDS = 60;
+
+    // Upper bounds of the length classes: short clips are dominated by startup
+    private static final double[] LENGTH_CLASSES = { 120, 1200, 7200 };
+
+    private static final EtaModel INSTANCE = new EtaModel();
+
+    // The whole queue: wall seconds until everything with an estimate is
+    // done, and how many jobs had none (no history, not probed, open-ended)
+    public static final class Estimate {
+
+        private final double remainingSeconds;
+        private final int unknown;
+
+        private Estimate(double remainingSeconds, int unknown) {
+            this.remainingSeconds = remainingSeconds;
+            this.unknown = unknown;
+        }
+
+        public double getRemainingSeconds() {
+            return remainingSeconds;
+        }
+
+        public int getUnknownCount() {
+            return unknown;
+        }
+
+        // "queue 1:02:03, done 14:35", plus "+2 unknown"; "" when nothing is known
+        public String summary() {
+            if (remainingSeconds <= 0 && unknown == 0) return "";
+            StringBuilder sb = new StringBuilder();
+            if (remainingSeconds > 0) {
+                LocalTime end = LocalTime.now().plusSeconds(Math.round(remainingSeconds));
+                sb.append("queue ").append(ProgressEvent.formatDuration(remainingSeconds))
+                        .append(String.format(Locale.ROOT, ", done %02d:%02d", end.getHour(), end.getMinute()));
+            }
+            if (unknown > 0) {
+                if (sb.length() > 0) sb.append(" ");
+                sb.append("+").append(unknown).append(" unknown");
+            }
+            return sb.toString();
+        }
+    }
+
+    private volatile boolean streamCopy = true;
+
+    // Realtime factor per kind of job, learned from the history snapshot factorsFrom
+    private final Map<String, Double> factors = new HashMap<>();
+    private List<JobMetrics.Record> factorsFrom;
+
+    private final Set<File> prefetched = ConcurrentHashMap.newKeySet();
+
+    public static EtaModel get() {
+        return INSTANCE;
+    }
+
+    // Whether queued jobs will copy matching streams (see JobScheduler.setStreamCopy)
+    public void setStreamCopy(boolean streamCopy) {
+        this.streamCopy = streamCopy;
+    }
+
+    // Media seconds per wall second expected for this preset on this input, 0 if nothing says
+    public double realtimeFactor(Preset preset, MediaInfo info) {
+
+        MediaInfo.Stream video = info.firstVideoStream();
+        String encoder = PresetArgs.videoCodec(preset.getFfmpegArgs());
+        String tier = PresetArgs.value(preset.getFfmpegArgs(), "-preset");
+        String codec = video != null ? video.getCodecName() : null;
+        long pixels = video != null ? (long) video.getWidth() * video.getHeight() : 0;
+        int length = lengthClass(info.getDurationSeconds());
+
+        String key = preset.getName() + "|" + encoder + "|" + tier + "|" + codec + "|" + pixels + "|" + length;
+
+        List<JobMetrics.Record> history = JobMetrics.get().snapshot();
+        synchronized (factors) {
+            if (history != factorsFrom) {
+                factors.clear();
+                factorsFrom = history;
+            }
+            Double cached = factors.get(key);
+            if (cached != null) return cached;
+        }
+
+        double factor = learn(history, preset.getName(), encoder, tier, codec, pixels, length);
+        synchronized (factors) {
+            if (history == factorsFrom) factors.put(key, factor);   // unless a newer history came meanwhile
+        }
+        return factor;
+    }
+
+    // Wall seconds the whole job should take, -1 if that can't be said yet
+    public double expectedSeconds(ConversionJob job) {
+
+        MediaInfo info = info(job);
+        if (info == null || info.getDurationSeconds() <= 0) return -1;
+
+        double factor = realtimeFactor(plannedPreset(job, info), info);
+        return factor > 0 ? info.getDurationSeconds() / factor : -1;
+    }
+
+    // Wall seconds left: the expected length before the job starts, then
+    // history blended into its live speed; 0 once finished, -1 if unknown
+    public double remainingSeconds(ConversionJob job) {
+
+        if (job.getState().isFinished()) return 0;
+
+        ProgressEvent event = job.getLastEvent();
+        if (job.getState() != ConversionJob.State.RUNNING || event == null || event.getOutTimeSeconds() < 0) {
+            return expectedSeconds(job);
+        }
+
+        MediaInfo info = info(job);
+        double duration = event.getDurationSeconds() > 0 ? event.getDurationSeconds()
+                : info != null ? info.getDurationSeconds() : 0;
+        if (duration <= 0) return -1;   // open-ended: a recording followed as it grows
+
+        double done = Math.min(event.getOutTimeSeconds(), duration);
+        double left = duration - done;
+        double live = event.getSpeed();
+        double learned = info != null ? realtimeFactor(plannedPreset(job, info), info) : 0;
+
+        if (learned <= 0 && live <= 0) return -1;
+        if (learned <= 0) return left / live;
+        if (live <= 0) return left / learned;
+
+        // Blend wall time per media second, so one slow guess can't hide behind a fast one
+        double weight = done / (done + LIVE_WEIGHT_SECONDS);
+        return left * ((1 - weight) / learned + weight / live);
+    }
+
+    // Finished share of the jobs' total work, 0-100: each job counts as long
+    // as it is expected to take, and jobs without an estimate count as the
+    // average of those with one
+    public int progress(List<ConversionJob> jobs) {
+
+        List<double[]> parts = new ArrayList<>();   // { expected seconds or -1, done fraction }
+        double known = 0;
+        int knownCount = 0;
+
+        for (ConversionJob job : jobs) {
+            if (job.getState() == ConversionJob.State.CANCELLED) continue;
+
+            double fraction;
+            if (job.getState().isFinished()) {
+                fraction = 1;
+            } else if (job.getState() == ConversionJob.State.RUNNING) {
+                ProgressEvent event = job.getLastEvent();
+                fraction = event != null && event.getPercent() >= 0 ? event.getPercent() / 100.0 : 0;
+            } else {
+                fraction = 0;
+            }
+
+            double expected = expectedSeconds(job);
+            if (expected > 0) {
+                known += expected;
+                knownCount++;
+            }
+            parts.add(new double[] { expected, fraction });
+        }
+
+        if (parts.isEmpty()) return 0;
+        double fallback = knownCount > 0 ? known / knownCount : 1;
+
+        double total = 0;
+        double done = 0;
+        for (double[] part : parts) {
+            double weight = part[0] > 0 ? part[0] : fallback;
+            total += weight;
+            done += weight * part[1];
+        }
+        return (int) Math.min(100, done * 100 / total);
+    }
+
+    // When the jobs will be done with this many running side by side: each
+    // queued job goes to whichever worker frees up first, in queue order.
+    // A group's outputs come from one ffmpeg pass on one worker, so the group
+    // takes one slot for as long as its slowest output has left.
+    public Estimate estimate(List<ConversionJob> jobs, int workers) {
+
+        Map<Object, double[]> units = new LinkedHashMap<>();   // { seconds left or -1, running }
+        int unknown = 0;
+
+        for (ConversionJob job : jobs) {
+            if (job.getState().isFinished()) continue;
+            double left = remainingSeconds(job);
+            if (left < 0) unknown++;
+
+            Object key = job.getGroup() != null ? job.getGroup() : job;
+            double[] unit = units.computeIfAbsent(key, k -> new double[] { -1, 0 });
+            unit[0] = Math.max(unit[0], left);
+            if (job.getState() == ConversionJob.State.RUNNING) unit[1] = 1;
+        }
+
+        List<Double> running = new ArrayList<>();
+        List<Double> queued = new ArrayList<>();
+        for (double[] unit : units.values()) {
+            if (unit[0] < 0) continue;
+            if (unit[1] > 0) {
+                running.add(unit[0]);
+            } else {
+                queued.add(unit[0]);
+            }
+        }
+
+        PriorityQueue<Double> free = new PriorityQueue<>();
+        for (int i = 0; i < Math.max(1, workers) - running.size(); i++) {
+            free.add(0.0);
+        }
+        free.addAll(running);
+
+        double end = 0;
+        for (double left : queued) {
+            double finish = free.poll() + left;
+            free.add(finish);
+        }
+        for (double finish : free) {
+            end = Math.max(end, finish);
+        }
+        return new Estimate(end, unknown);
+    }
+
+    // Speed and time left for a status column or log line: "2.10x  ETA 3:12",
+    // like ProgressEvent.summary() but with the learned estimate
+    public String summary(ConversionJob job) {
+
+        ProgressEvent event = job.getLastEvent();
+        if (event == null) return "";
+        double left = remainingSeconds(job);
+        if (left < 0 || event.isFinished()) return event.summary();
+
+        StringBuilder sb = new StringBuilder();
+        if (event.getSpeed() > 0) {
+            sb.append(String.format(Locale.ROOT, "%.2fx  ", event.getSpeed()));
+        }
+        return sb.append("ETA ").append(ProgressEvent.formatDuration(left)).toString();
+    }
+
+    // Cached probe, or null while one is fetched in the background
+    private MediaInfo info(ConversionJob job) {
+
+        MediaInfo info = MediaProbe.get().cached(job.getInput());
+        if (info != null || job.isFollow() || job.getState().isFinished()) return info;
+
+        if (prefetched.size() > 10000) prefetched.clear();
+        if (prefetched.add(job.getInput())) {
+            MediaProbe.get().prefetch(job.getInput());
+        }
+        return null;
+    }
+
+    // What the job runs, or will: the scheduler's plan once it has one,
+    // otherwise the preset with matching streams copied
+    private Preset plannedPreset(ConversionJob job, MediaInfo info) {
+        StreamCopyPlanner.Plan plan = job.getPlan();
+        if (plan != null) return plan.getPreset();
+        return streamCopy ? StreamCopyPlanner.plan(job.getPreset(), info).getPreset() : job.getPreset();
+    }
+
+    private static double learn(List<JobMetrics.Record> history, String preset, String encoder, String tier,
+                                String codec, long pixels, int length) {
+
+        List<List<Double>> levels = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            levels.add(new ArrayList<>());
+        }
+
+        for (int i = history.size() - 1; i >= 0; i--) {
+            JobMetrics.Record record = history.get(i);
+            if (!record.getState().equals(ConversionJob.State.DONE.name())) continue;
+            if (record.getRealtimeFactor() <= 0 || !Objects.equals(encoder, record.getEncoder())) continue;
+            if (record.getOutputs() > 1) continue;   // timed the whole group's pass, not this preset
+
+            int level = level(record, preset, tier, codec, pixels, length);
+            if (level < 0 || levels.get(level).size() >= SAMPLES) continue;
+
+            // Copying is bound by the disk, not by the number of pixels
+            double factor = record.getRealtimeFactor();
+            if (pixels > 0 && record.getPixels() > 0 && !"copy".equals(encoder)) {
+                factor *= (double) record.getPixels() / pixels;
+            }
+            levels.get(level).add(factor);
+        }
+
+        // The most specific level with enough runs, else the most specific with any
+        List<Double> best = null;
+        for (List<Double> samples : levels) {
+            if (samples.size() >= ENOUGH_SAMPLES) {
+                best = samples;
+                break;
+            }
+            if (best == null && !samples.isEmpty()) best = samples;
+        }
+
+        if (best == null) return 0;
+        Collections.sort(best);
+        return best.get(best.size() / 2);
+    }
+
+    // 0 (same kind of job) to 3 (same encoder only), -1 if unrelated
+    private static int level(JobMetrics.Record record, String preset, String tier, String codec,
+                             long pixels, int length) {
+
+        if (preset.equals(record.getPreset())) {
+            if (record.getPixels() != pixels) return 2;
+            if (Objects.equals(codec, record.getCodec())
+                    && lengthClass(record.getMediaSeconds()) == length) return 0;
+            return 1;
+        }
+        return Objects.equals(tier, record.getSpeedTier()) && record.getEncoder() != null ? 3 : -1;
+    }
+
+    private static int lengthClass(double seconds) {
+        int i = 0;
+        while (i < LENGTH_CLASSES.length && seconds >= LENGTH_CLASSES[i]) {
+            i++;
+        }
+        return i;
+    }
+}
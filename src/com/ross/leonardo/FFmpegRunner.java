@@ -0,0 +1,238 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Starts the ffmpeg/ffprobe processes for one conversion and kills all of
+// them on cancel. Safe to use from several threads at once.
+public class FFmpegRunner {
+
+    // The process ran and failed, as opposed to not starting at all
+    public static class ExitException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int exitCode;
+
+        public ExitException(String message, int exitCode) {
+            super(message);
+            this.exitCode = exitCode;
+        }
+
+        public int getExitCode() {
+            return exitCode;
+        }
+    }
+
+    // Writes a command's input to its stdin ("-i pipe:0"); stdin is closed afterwards
+    public interface StdinSource {
+        void feed(OutputStream stdin) throws IOException, InterruptedException;
+    }
+
+    private final Set<Process> running = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+    private volatile ProcessUsage usage;
+    private volatile ProcessPriority priority = ProcessPriority.NORMAL;
+    private volatile String cpus;
+
+    // Runs ffmpeg to completion, reporting its -progress stream; a non-zero exit
+    // becomes an IOException unless we cancelled it. durationSeconds <= 0 means unknown.
+    public void run(List<String> command, double durationSeconds, ProgressListener listener)
+            throws IOException, InterruptedException {
+        run(command, durationSeconds, listener, null);
+    }
+
+    // Same, with stdin fed from source on a thread of its own
+    public void run(List<String> command, double durationSeconds, ProgressListener listener, StdinSource source)
+            throws IOException, InterruptedException {
+
+        // Machine-readable progress on stdout; stderr is left for real log output
+        List<String> full = new ArrayList<>();
+        full.add(command.get(0));
+        full.add("-nostats");
+        full.add("-progress");
+        full.add("pipe:1");
+        full.addAll(command.subList(1, command.size()));
+
+        Process process = start(full, false);
+        if (process == null) return;
+
+        StderrTail stderr = new StderrTail(process);
+        stderr.start();
+
+        StdinFeed stdin = source != null ? new StdinFeed(process, source) : null;
+        if (stdin != null) {
+            stdin.start();
+        }
+
+        try (InputStream progress = process.getInputStream()) {
+
+            new ProgressParser(durationSeconds).parse(progress, listener);
+
+            int exitCode = process.waitFor();
+            stderr.join(1000);
+
+            if (cancelled) return;
+
+            if (stdin != null) {
+                stdin.join();
+                if (stdin.failure != null && exitCode == 0) throw stdin.failure;
+            }
+
+            if (exitCode != 0) {
+                String lastLine = stderr.lastLine();
+                throw new ExitException(command.get(0) + " exited with code " + exitCode
+                        + (lastLine.isEmpty() ? "" : ":\n" + lastLine), exitCode);
+            }
+        } finally {
+            running.remove(process);
+            process.destroy();
+        }
+    }
+
+    // Runs a short command (ffprobe) and returns its stdout; stderr is discarded
+    public String capture(List<String> command) throws IOException, InterruptedException {
+
+        Process process = start(command, true);
+        if (process == null) return "";
+
+        try {
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            int exitCode = process.waitFor();
+
+            if (!cancelled && exitCode != 0) {
+                throw new ExitException(command.get(0) + " exited with code " + exitCode, exitCode);
+            }
+            return output;
+        } finally {
+            running.remove(process);
+            process.destroy();
+        }
+    }
+
+    public synchronized void cancel() {
+        cancelled = true;
+        for (Process process : running) {
+            process.destroyForcibly();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // Kills what is running without cancelling: the caller is about to start it over
+    public synchronized void abort() {
+        for (Process process : running) {
+            process.destroyForcibly();
+        }
+    }
+
+    // Every process started from here on is counted in usage
+    public void setUsage(ProcessUsage usage) {
+        this.usage = usage;
+    }
+
+    // Processes started from here on run at this priority, on these CPUs ("0-3"; null for all)
+    public void setPriority(ProcessPriority priority, String cpus) {
+        this.priority = priority;
+        this.cpus = cpus;
+    }
+
+    // Size of the CPU list, 0 when processes may use every core
+    public int getCpuCount() {
+        return ProcessPriority.cpuCount(cpus);
+    }
+
+    private synchronized Process start(List<String> command, boolean discardStderr) throws IOException {
+
+        if (cancelled) return null;
+
+        ProcessBuilder pb = new ProcessBuilder(priority.wrap(command, cpus));
+        if (discardStderr) {
+            pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+        }
+
+        Process process = pb.start();
+        running.add(process);
+        if (usage != null) {
+            usage.track(process);
+        }
+        return process;
+    }
+
+    private static class StdinFeed extends Thread {
+
+        private final Process process;
+        private final StdinSource source;
+        private volatile IOException failure;
+
+        StdinFeed(Process process, StdinSource source) {
+            super("leonardo-ffmpeg-stdin");
+            this.process = process;
+            this.source = source;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try (OutputStream out = process.getOutputStream()) {
+                source.feed(out);
+            } catch (IOException e) {
+                // ffmpeg closing its end early shows up in its exit code instead
+                if (process.isAlive()) failure = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Drains stderr so ffmpeg never blocks on a full pipe, keeping the last
+    // non-blank line for the error message
+    private static class StderrTail extends Thread {
+
+        private final Process process;
+        private volatile String lastLine = "";
+
+        StderrTail(Process process) {
+            super("leonardo-ffmpeg-stderr");
+            this.process = process;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try (BufferedReader reader =
+                         new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        lastLine = line.trim();
+                    }
+                }
+            } catch (IOException ignored) {
+                // Process was killed
+            }
+        }
+
+        String lastLine() {
+            return lastLine;
+        }
+    }
+}
@@ -11,61 +11,84 @@
 
 package com.ross.leonardo;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 public class FFmpegUtil {
 
+    private static CompletableFuture<Boolean> detection;
+
     public static boolean isFFmpegAvailable() {
         try {
             ProcessBuilder pb = new ProcessBuilder("ffmpeg", "-version");
+            pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+            pb.redirectError(ProcessBuilder.Redirect.DISCARD);
             Process process = pb.start();
-            process.waitFor();
+
+            // A wedged binary (or an NFS path that hangs) must not hold anyone up forever
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return false;
+            }
+
             return process.exitValue() == 0;
         } catch (Exception e) {
             return false;
         }
     }
 
+    // isFFmpegAvailable() on a background thread, started once per process. The
+    // GUI kicks it off before Swing is even up so the check overlaps window setup.
+    public static synchronized CompletableFuture<Boolean> detectAsync() {
+        if (detection == null) {
+            CompletableFuture<Boolean> result = new CompletableFuture<>();
+            detection = result;
+            Thread t = new Thread(() -> result.complete(isFFmpegAvailable()), "leonardo-ffmpeg-check");
+            t.setDaemon(true);
+            t.start();
+        }
+        return detection;
+    }
+
+    // 0 when the duration can't be determined; see MediaProbe for everything else
     public static double getDurationSeconds(String filePath) {
-        try {
-            ProcessBuilder pb = new ProcessBuilder("ffmpeg", "-i", filePath);
-            pb.redirectErrorStream(true);
+        MediaInfo info = MediaProbe.get().probeOrNull(new java.io.File(filePath));
+        return info != null ? info.getDurationSeconds() : 0;
+    }
 
-            Process process = pb.start();
+    // "HH:MM:SS.frac" with any number of hour digits, optionally negative; -1 for "N/A" or garbage
+    public static double parseTimestamp(String value) {
+        try {
+            String text = value.trim();
+            boolean negative = text.startsWith("-");
+            if (negative) text = text.substring(1);
 
-            BufferedReader reader =
-                    new BufferedReader(new InputStreamReader(process.getInputStream()));
+            // "N/A" is common enough that it shouldn't cost an exception
+            if (text.isEmpty() || !Character.isDigit(text.charAt(0))) return -1;
 
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.contains("Duration:")) {
-                    String duration = line.split("Duration:")[1].split(",")[0].trim();
-                    return parseDuration(duration);
-                }
+            String[] parts = text.split(":");
+            double seconds = 0;
+            for (String part : parts) {
+                seconds = seconds * 60 + Double.parseDouble(part);
             }
-        } catch (Exception ignored) {}
 
-        return 1;
-    }
-
-    private static double parseDuration(String duration) {
-        String[] parts = duration.split(":");
-        double hours = Double.parseDouble(parts[0]);
-        double minutes = Double.parseDouble(parts[1]);
-        double seconds = Double.parseDouble(parts[2]);
-        return hours * 3600 + minutes * 60 + seconds;
+            return negative ? -seconds : seconds;
+        } catch (Exception e) {
+            return -1;
+        }
     }
 
+    // Legacy stats line ("... time=00:01:02.03 bitrate=...") -> seconds, or 0 if there is none
     public static double extractTimeInSeconds(String line) {
-        try {
-            int index = line.indexOf("time=");
-            if (index == -1) return 0;
+        int index = line.indexOf("time=");
+        if (index == -1) return 0;
 
-            String timePart = line.substring(index + 5, index + 16);
-            return parseDuration(timePart);
-        } catch (Exception e) {
-            return 0;
+        int start = index + 5;
+        int end = start;
+        while (end < line.length() && !Character.isWhitespace(line.charAt(end))) {
+            end++;
         }
+
+        return Math.max(0, parseTimestamp(line.substring(start, end)));
     }
 }
@@ -0,0 +1,108 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.Locale;
+import java.util.Set;
+
+// Streams a recording that is still being written into ffmpeg's stdin, like
+// "tail -f": everything already on disk first, then whatever is appended,
+// until the file has stopped growing for the idle time. Then stdin is closed
+// and ffmpeg finishes the output seconds after the recording stopped.
+//
+// Only containers that can be read front to back work this way. An MP4 or
+// MOV gets its index at the very end, so those are waited out instead.
+public class GrowingFileFeeder {
+
+    // Longer than any stall a recorder has mid-recording (disk hiccups, scene switches)
+    public static final long DEFAULT_IDLE_MILLIS = 15000;
+
+    private static final long POLL_MILLIS = 250;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private static final Set<String> STREAMABLE = Set.of(
+            "mkv", "webm", "ts", "mts", "m2ts", "flv", "mpg", "mpeg");
+
+    private final File file;
+    private final long idleMillis;
+    private volatile boolean cancelled;
+    private volatile long fed;
+
+    public GrowingFileFeeder(File file, long idleMillis) {
+        this.file = file;
+        this.idleMillis = idleMillis;
+    }
+
+    // Modified within the idle time: something is probably still writing it
+    public static boolean isGrowing(File file, long idleMillis) {
+        return file.isFile() && System.currentTimeMillis() - file.lastModified() < idleMillis;
+    }
+
+    public static boolean isStreamable(File file) {
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 && STREAMABLE.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    // Copies the file into out until it has been idle long enough; does not close out
+    public void feed(OutputStream out) throws IOException, InterruptedException {
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long idleSince = System.currentTimeMillis();
+
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            while (!cancelled) {
+                int n = in.read(buffer);
+                if (n > 0) {
+                    out.write(buffer, 0, n);
+                    fed += n;
+                    idleSince = System.currentTimeMillis();
+                    continue;
+                }
+
+                out.flush();
+                if (System.currentTimeMillis() - idleSince >= idleMillis) return;
+
+                // A recorder that starts a fresh file under the same name truncates it
+                if (file.length() < fed) {
+                    throw new IOException(file.getName() + " was truncated while it was being converted");
+                }
+                Thread.sleep(POLL_MILLIS);
+            }
+        }
+    }
+
+    // For a recording that can't be streamed: returns once it stops growing
+    public void awaitSettled() throws InterruptedException {
+        long size = -1;
+        long modified = -1;
+        long stableSince = System.currentTimeMillis();
+
+        while (!cancelled) {
+            long nowSize = file.length();
+            long nowModified = file.lastModified();
+            if (nowSize != size || nowModified != modified) {
+                size = nowSize;
+                modified = nowModified;
+                stableSince = System.currentTimeMillis();
+            } else if (System.currentTimeMillis() - stableSince >= idleMillis) {
+                return;
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+}
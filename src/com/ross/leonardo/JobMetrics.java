@@ -0,0 +1,376 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// How every finished conversion performed on this machine: one JSON line per
+// job appended to ~/.leonardo/metrics.jsonl, plus per-preset totals in
+// ~/.leonardo/metrics.prom (Prometheus text format, for node_exporter's
+// textfile collector or just for reading). The totals are rebuilt from the
+// log on first use, so deleting the .prom file loses nothing.
+public class JobMetrics {
+
+    // Recent jobs kept in memory for SpeedTiers' estimates
+    private static final int HISTORY_SIZE = 2000;
+
+    private static final JobMetrics INSTANCE = new JobMetrics(
+            AppPaths.resolve("metrics.jsonl"), AppPaths.resolve("metrics.prom"));
+
+    // One finished job, as written to the log
+    public static final class Record {
+
+        private final String preset;
+        private final String state;
+        private final double wallSeconds;
+        private final double mediaSeconds;
+        private final double cpuSeconds;
+        private final long peakRssBytes;
+        private final long inputBytes;
+        private final long outputBytes;
+        private final String encoder;
+        private final String speedTier;
+        private final long pixels;
+        private final String codec;
+        private final int outputs;
+
+        Record(String preset, String state, double wallSeconds, double mediaSeconds, double cpuSeconds,
+               long peakRssBytes, long inputBytes, long outputBytes, String encoder, String speedTier,
+               long pixels, String codec, int outputs) {
+            this.preset = preset;
+            this.state = state;
+            this.wallSeconds = wallSeconds;
+            this.mediaSeconds = mediaSeconds;
+            this.cpuSeconds = cpuSeconds;
+            this.peakRssBytes = peakRssBytes;
+            this.inputBytes = inputBytes;
+            this.outputBytes = outputBytes;
+            this.encoder = encoder;
+            this.speedTier = speedTier;
+            this.pixels = pixels;
+            this.codec = codec;
+            this.outputs = Math.max(1, outputs);
+        }
+
+        public String getPreset() {
+            return preset;
+        }
+
+        public String getState() {
+            return state;
+        }
+
+        public double getWallSeconds() {
+            return wallSeconds;
+        }
+
+        public double getMediaSeconds() {
+            return mediaSeconds;
+        }
+
+        // Media seconds per wall second; 0 when either is unknown
+        public double getRealtimeFactor() {
+            return wallSeconds > 0 && mediaSeconds > 0 ? mediaSeconds / wallSeconds : 0;
+        }
+
+        public long getOutputBytes() {
+            return outputBytes;
+        }
+
+        // Video encoder that ran (libx264, copy, ...), or null
+        public String getEncoder() {
+            return encoder;
+        }
+
+        // The encoder's -preset (slow, medium, p5 ...), or null
+        public String getSpeedTier() {
+            return speedTier;
+        }
+
+        // Width x height of the input's video, 0 if it had none
+        public long getPixels() {
+            return pixels;
+        }
+
+        // Codec of the input's video (h264, prores ...), or null
+        public String getCodec() {
+            return codec;
+        }
+
+        // Outputs written by the same ffmpeg pass; above 1 the wall time is the
+        // whole pass's, not what this preset alone would have taken
+        public int getOutputs() {
+            return outputs;
+        }
+    }
+
+    // Running totals for one preset
+    private static final class Totals {
+        final Map<String, Long> jobs = new TreeMap<>();
+        double wallSeconds;
+        double mediaSeconds;
+        double cpuSeconds;
+        long inputBytes;
+        long outputBytes;
+        long peakRssBytes;
+        double lastRealtimeFactor;
+
+        void add(Record record) {
+            jobs.merge(record.state, 1L, Long::sum);
+
+            // Only complete runs say anything about how fast a preset is
+            if (!record.state.equals(ConversionJob.State.DONE.name())) return;
+            wallSeconds += record.wallSeconds;
+            mediaSeconds += record.mediaSeconds;
+            cpuSeconds += record.cpuSeconds;
+            inputBytes += record.inputBytes;
+            outputBytes += record.outputBytes;
+            peakRssBytes = Math.max(peakRssBytes, record.peakRssBytes);
+            if (record.getRealtimeFactor() > 0) lastRealtimeFactor = record.getRealtimeFactor();
+        }
+    }
+
+    private final File logFile;
+    private final File promFile;
+    private Map<String, Totals> totals;   // by preset name, loaded on first use
+    private final List<Record> history = new ArrayList<>();
+
+    // Immutable copy of history, republished on every change; null until the log is loaded
+    private volatile List<Record> snapshot;
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    public JobMetrics(File logFile, File promFile) {
+        this.logFile = logFile;
+        this.promFile = promFile;
+    }
+
+    public static JobMetrics get() {
+        return INSTANCE;
+    }
+
+    // Logs one job that went through ffmpeg. outputs > 1 means the converter
+    // encoded that many jobs from one decode; its CPU time is split evenly.
+    public void record(ConversionJob job, Preset preset, VideoConverter converter, int outputs, double wallSeconds) {
+
+        MediaInfo info = MediaProbe.get().probeOrNull(job.getInput());
+        MediaInfo.Stream video = info != null ? info.firstVideoStream() : null;
+        ProcessUsage usage = converter.getUsage();
+        ProgressEvent event = job.getLastEvent();
+
+        double mediaSeconds = info != null ? info.getDurationSeconds() : 0;
+        if (mediaSeconds <= 0 && event != null) mediaSeconds = event.getOutTimeSeconds();
+        double share = 1.0 / Math.max(1, outputs);
+
+        Record record = new Record(preset.getName(), job.getState().name(), wallSeconds, mediaSeconds,
+                usage.getCpuSeconds() * share, usage.getPeakRssBytes(),
+                job.getInput().length(), job.getOutput().length(),
+                PresetArgs.videoCodec(preset.getFfmpegArgs()), PresetArgs.value(preset.getFfmpegArgs(), "-preset"),
+                video != null ? (long) video.getWidth() * video.getHeight() : 0,
+                video != null ? video.getCodecName() : null, outputs);
+
+        StringBuilder sb = new StringBuilder("{");
+        sb.append("\"time\":").append(Json.quote(Instant.now().toString()));
+        sb.append(",\"input\":").append(Json.quote(job.getInput().getAbsolutePath()));
+        sb.append(",\"output\":").append(Json.quote(job.getOutput().getAbsolutePath()));
+        sb.append(",\"preset\":").append(Json.quote(record.preset));
+        sb.append(",\"state\":").append(Json.quote(record.state));
+        if (job.getPlan() != null) sb.append(",\"plan\":").append(Json.quote(job.getPlan().describe()));
+        if (video != null) {
+            sb.append(",\"video_codec\":").append(Json.quote(String.valueOf(video.getCodecName())));
+            sb.append(",\"width\":").append(video.getWidth());
+            sb.append(",\"height\":").append(video.getHeight());
+        }
+        if (record.encoder != null) sb.append(",\"encoder\":").append(Json.quote(record.encoder));
+        if (record.speedTier != null) sb.append(",\"speed_tier\":").append(Json.quote(record.speedTier));
+        sb.append(",\"outputs\":").append(record.outputs);
+        sb.append(",\"wall_seconds\":").append(number(wallSeconds));
+        sb.append(",\"media_seconds\":").append(number(mediaSeconds));
+        sb.append(",\"realtime_factor\":").append(number(record.getRealtimeFactor()));
+        sb.append(",\"cpu_seconds\":").append(number(record.cpuSeconds));
+        if (usage.getUserSeconds() >= 0) {
+            sb.append(",\"cpu_user_seconds\":").append(number(usage.getUserSeconds() * share));
+            sb.append(",\"cpu_system_seconds\":").append(number(usage.getSystemSeconds() * share));
+        }
+        sb.append(",\"peak_rss_bytes\":").append(record.peakRssBytes);
+        sb.append(",\"input_bytes\":").append(record.inputBytes);
+        sb.append(",\"output_bytes\":").append(record.outputBytes);
+        if (event != null && event.getFrame() > 0 && wallSeconds > 0) {
+            sb.append(",\"avg_fps\":").append(number(event.getFrame() / wallSeconds));
+        }
+        sb.append("}\n");
+
+        synchronized (this) {
+            loadTotals();
+            add(record);
+            snapshot = List.copyOf(history);
+            try {
+                // One write per line, so two instances appending never interleave mid-line
+                Files.write(logFile.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8),
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                writeProm();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void loadTotals() {
+
+        if (totals != null) return;
+        totals = new TreeMap<>();
+
+        try {
+            if (logFile.isFile()) {
+                for (String line : Files.readAllLines(logFile.toPath(), StandardCharsets.UTF_8)) {
+                    Record record = parse(line);
+                    if (record != null) add(record);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            snapshot = List.copyOf(history);
+        }
+    }
+
+    private void add(Record record) {
+        totals.computeIfAbsent(record.preset, k -> new Totals()).add(record);
+        history.add(record);
+        if (history.size() > HISTORY_SIZE) history.remove(0);
+    }
+
+    // The latest jobs from the log, oldest first. Reads the log on first use.
+    public List<Record> history() {
+        List<Record> current = snapshot;
+        if (current != null) return current;
+        synchronized (this) {
+            loadTotals();
+            return snapshot;
+        }
+    }
+
+    // Like history(), but never waits: empty until the log has been read on
+    // a background thread. The same list comes back until a job is recorded,
+    // so callers can cache what they derive from it. Safe on the EDT.
+    public List<Record> snapshot() {
+        List<Record> current = snapshot;
+        if (current != null) return current;
+
+        if (loading.compareAndSet(false, true)) {
+            Thread loader = new Thread(this::history, "leonardo-metrics");
+            loader.setDaemon(true);
+            loader.start();
+        }
+        return List.of();
+    }
+
+    // null for a blank or damaged line (a crash mid-append)
+    @SuppressWarnings("unchecked")
+    static Record parse(String line) {
+        if (line.isBlank()) return null;
+        try {
+            Map<String, Object> map = (Map<String, Object>) Json.parse(line);
+            return new Record((String) map.get("preset"), (String) map.get("state"),
+                    value(map, "wall_seconds"), value(map, "media_seconds"), value(map, "cpu_seconds"),
+                    (long) value(map, "peak_rss_bytes"), (long) value(map, "input_bytes"),
+                    (long) value(map, "output_bytes"), (String) map.get("encoder"),
+                    (String) map.get("speed_tier"), (long) (value(map, "width") * value(map, "height")),
+                    (String) map.get("video_codec"), (int) value(map, "outputs"));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static double value(Map<String, Object> map, String key) {
+        Object value = map.get(key);
+        return value instanceof Double ? (Double) value : 0;
+    }
+
+    private void writeProm() throws IOException {
+
+        StringBuilder sb = new StringBuilder();
+        header(sb, "leonardo_jobs_total", "counter", "Conversions that went through ffmpeg, by final state");
+        for (Map.Entry<String, Totals> e : totals.entrySet()) {
+            for (Map.Entry<String, Long> state : e.getValue().jobs.entrySet()) {
+                sb.append("leonardo_jobs_total{preset=").append(label(e.getKey()))
+                        .append(",state=").append(label(state.getKey().toLowerCase(Locale.ROOT)))
+                        .append("} ").append(state.getValue()).append('\n');
+            }
+        }
+
+        header(sb, "leonardo_wall_seconds_total", "counter", "Wall-clock time of completed conversions");
+        gauge(sb, "leonardo_wall_seconds_total", t -> t.wallSeconds);
+        header(sb, "leonardo_media_seconds_total", "counter", "Media duration of completed conversions");
+        gauge(sb, "leonardo_media_seconds_total", t -> t.mediaSeconds);
+        header(sb, "leonardo_cpu_seconds_total", "counter", "CPU time (user + system) of completed conversions");
+        gauge(sb, "leonardo_cpu_seconds_total", t -> t.cpuSeconds);
+        header(sb, "leonardo_input_bytes_total", "counter", "Bytes read by completed conversions");
+        gauge(sb, "leonardo_input_bytes_total", t -> t.inputBytes);
+        header(sb, "leonardo_output_bytes_total", "counter", "Bytes written by completed conversions");
+        gauge(sb, "leonardo_output_bytes_total", t -> t.outputBytes);
+        header(sb, "leonardo_peak_rss_bytes", "gauge", "Largest resident set of any ffmpeg process");
+        gauge(sb, "leonardo_peak_rss_bytes", t -> t.peakRssBytes);
+        header(sb, "leonardo_realtime_factor", "gauge", "Media seconds per wall second of the latest completed conversion");
+        gauge(sb, "leonardo_realtime_factor", t -> t.lastRealtimeFactor);
+
+        // Scrapers must never see a half-written file
+        Path dir = promFile.getAbsoluteFile().getParentFile().toPath();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, "metrics-", ".tmp");
+        try {
+            try (FileOutputStream out = new FileOutputStream(tmp.toFile())) {
+                out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            Files.move(tmp, promFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private interface Field {
+        double of(Totals totals);
+    }
+
+    private void gauge(StringBuilder sb, String name, Field field) {
+        for (Map.Entry<String, Totals> e : totals.entrySet()) {
+            sb.append(name).append("{preset=").append(label(e.getKey())).append("} ")
+                    .append(number(field.of(e.getValue()))).append('\n');
+        }
+    }
+
+    private static void header(StringBuilder sb, String name, String type, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static String label(String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + '"';
+    }
+
+    private static String number(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return String.valueOf((long) value);
+        }
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
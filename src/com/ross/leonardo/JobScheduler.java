@@ -0,0 +1,478 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Bounded worker pool that runs ConversionJobs, N at a time.
+// Listener callbacks arrive on the worker threads, never on the EDT.
+public class JobScheduler {
+
+    public interface JobListener {
+        void jobStarted(ConversionJob job);
+        void jobProgress(ConversionJob job);
+        void jobFinished(ConversionJob job);
+    }
+
+    // Queued inputs are probed this far beyond the running jobs, so metadata is
+    // cached before a worker needs it and broken files fail before their turn
+    private static final int PROBE_AHEAD = 4;
+
+    private final ThreadPoolExecutor executor;
+    private final JobListener listener;
+    private final List<ConversionJob> jobs = new CopyOnWriteArrayList<>();
+    private final Set<ConversionJob> probed = ConcurrentHashMap.newKeySet();
+    private volatile boolean streamCopy = true;
+    private volatile boolean reuseOutputs = true;
+    private volatile boolean resumable;
+    private volatile boolean preferHardware;
+    private volatile ProcessPriority priority = ProcessPriority.NORMAL;
+    private volatile String cpus;
+    private volatile SpeedTarget speedTarget;
+    private volatile ScratchDir scratch;
+
+    public JobScheduler(int workers, JobListener listener) {
+
+        this.listener = listener;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                workers, workers,
+                30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "leonardo-job-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    // Each ffmpeg already spreads across several cores, so a quarter of them is a sane default
+    public static int defaultWorkerCount() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+    }
+
+    public int getWorkerCount() {
+        return executor.getMaximumPoolSize();
+    }
+
+    // Takes effect as soon as a worker frees up; running jobs are never interrupted
+    public synchronized void setWorkerCount(int workers) {
+        if (workers < 1) throw new IllegalArgumentException("workers must be at least 1");
+
+        if (workers > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(workers);
+            executor.setCorePoolSize(workers);
+        } else {
+            executor.setCorePoolSize(workers);
+            executor.setMaximumPoolSize(workers);
+        }
+
+        updateThreadBudget();
+    }
+
+    // Copy input streams that already match the preset instead of re-encoding them
+    public void setStreamCopy(boolean streamCopy) {
+        this.streamCopy = streamCopy;
+        EtaModel.get().setStreamCopy(streamCopy);
+    }
+
+    public boolean isStreamCopy() {
+        return streamCopy;
+    }
+
+    // Skip (or hard-link) outputs the ConversionCache says are already up to date
+    public void setReuseOutputs(boolean reuseOutputs) {
+        this.reuseOutputs = reuseOutputs;
+    }
+
+    public boolean isReuseOutputs() {
+        return reuseOutputs;
+    }
+
+    // Long re-encodes keep a journal so a cancelled or crashed job resumes where it stopped
+    public void setResumable(boolean resumable) {
+        this.resumable = resumable;
+    }
+
+    public boolean isResumable() {
+        return resumable;
+    }
+
+    // Swap the preset's software encoder for the fastest working hardware one of the same codec
+    public void setPreferHardware(boolean preferHardware) {
+        this.preferHardware = preferHardware;
+    }
+
+    public boolean isPreferHardware() {
+        return preferHardware;
+    }
+
+    // For jobs that don't set their own priority
+    public void setPriority(ProcessPriority priority) {
+        this.priority = priority;
+    }
+
+    public ProcessPriority getPriority() {
+        return priority;
+    }
+
+    // Keeps every job's ffmpeg on these CPUs ("0-3", "0,2,4-7"); null for all of them
+    public void setCpus(String cpus) {
+        this.cpus = cpus != null ? ProcessPriority.checkCpuList(cpus) : null;
+    }
+
+    public String getCpus() {
+        return cpus;
+    }
+
+    // Default for jobs without a target of their own; null encodes at each preset's own tier
+    public void setSpeedTarget(SpeedTarget speedTarget) {
+        this.speedTarget = speedTarget;
+    }
+
+    public SpeedTarget getSpeedTarget() {
+        return speedTarget;
+    }
+
+    // Encode into this (fast) folder and move finished outputs into place; null writes in place
+    public void setScratchDir(File dir) {
+        this.scratch = dir != null ? new ScratchDir(dir) : null;
+    }
+
+    public File getScratchDir() {
+        ScratchDir s = scratch;
+        return s != null ? s.getDir() : null;
+    }
+
+    public void submit(ConversionJob job) {
+        jobs.add(job);
+        updateThreadBudget();
+        executor.execute(() -> runJob(job));
+        probeAhead();
+    }
+
+    // Jobs for the same input with different presets: one ffmpeg decodes the
+    // input once and encodes all of them. Cancelling one cancels the pass.
+    public void submitGroup(List<ConversionJob> group) {
+
+        if (group.isEmpty()) return;
+        for (ConversionJob job : group) {
+            if (!job.getInput().equals(group.get(0).getInput())) {
+                throw new IllegalArgumentException("A group must share one input");
+            }
+        }
+
+        Object id = new Object();
+        for (ConversionJob job : group) {
+            job.setGroup(id);
+        }
+
+        jobs.addAll(group);
+        updateThreadBudget();
+        executor.execute(() -> runGroup(List.copyOf(group)));
+        probeAhead();
+    }
+
+    // Starts probes for the first queued jobs that don't have one yet
+    private void probeAhead() {
+
+        int window = getWorkerCount() + PROBE_AHEAD;
+
+        for (ConversionJob job : jobs) {
+            if (window-- <= 0) break;
+            if (job.getState() != ConversionJob.State.PENDING || !probed.add(job)) continue;
+            if (job.isFollow()) continue;   // an empty, just-started recording isn't broken
+
+            MediaProbe.get().prefetch(job.getInput()).whenComplete((info, error) -> {
+                String problem = null;
+                if (error instanceof MediaProbe.InvalidMediaException) {
+                    problem = error.getMessage();
+                } else if (info != null && !info.hasVideo() && !info.hasAudio()) {
+                    problem = job.getInput().getName() + " has no audio or video streams";
+                }
+
+                if (problem != null && job.reject(problem)) {
+                    dropJob(job);
+                }
+            });
+        }
+    }
+
+    // Removes a finished job and reports it, exactly once
+    private void dropJob(ConversionJob job) {
+        if (!jobs.remove(job)) return;
+        probed.remove(job);
+        updateThreadBudget();
+        listener.jobFinished(job);
+        probeAhead();
+    }
+
+    // Tell the thread budget how many jobs will encode side by side from here on
+    private void updateThreadBudget() {
+        ThreadBudget.get().setExpectedJobs(Math.min(getWorkerCount(), jobs.size()));
+    }
+
+    // Jobs that are queued or running; finished jobs drop out of this list
+    public List<ConversionJob> getActiveJobs() {
+        return jobs;
+    }
+
+    public void cancelAll() {
+        for (ConversionJob job : jobs) {
+            job.cancel();
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    // The preset this job will run before any speed target: stream copies
+    // swapped in, then adapted to the installed ffmpeg. Throws if that ffmpeg
+    // can't run it.
+    private Preset planPreset(ConversionJob job) throws IOException {
+
+        // The probe is cached, so VideoConverter's own lookup of the same file is free
+        Preset preset = job.getPreset();
+        StreamCopyPlanner.Plan plan = StreamCopyPlanner.plan(preset,
+                streamCopy ? MediaProbe.get().probeOrNull(job.getInput()) : null);
+
+        try {
+            CapabilityRegistry capabilities = CapabilityRegistry.get();
+            if (capabilities != null) {
+                plan = plan.withPreset(capabilities.adapt(plan.getPreset(), preferHardware));
+            }
+        } finally {
+            if (streamCopy || plan.getPreset() != preset) {
+                job.setPlan(plan);
+            }
+        }
+
+        return plan.getPreset();
+    }
+
+    // The planned preset sped up for the job's target. The tier comes from the
+    // history at the time, so a job resuming from a journal keeps the tier its
+    // finished pieces were encoded at instead of picking again.
+    private Preset tunePreset(ConversionJob job, Preset untuned) {
+
+        SpeedTarget target = targetOf(job);
+        if (target == null || !SpeedTiers.isTunable(untuned)) return untuned;
+
+        Preset tuned = resumable ? ResumableEncoder.journaled(job.getInput(), job.getOutput(), untuned, target) : null;
+        if (tuned == null) {
+            tuned = SpeedTiers.choose(untuned, MediaProbe.get().probeOrNull(job.getInput()), target);
+        }
+
+        if (tuned != untuned) {
+            StreamCopyPlanner.Plan plan = job.getPlan();
+            job.setPlan((plan != null ? plan : StreamCopyPlanner.plan(untuned, null)).withPreset(tuned));
+        }
+        return tuned;
+    }
+
+    private SpeedTarget targetOf(ConversionJob job) {
+        return job.getSpeedTarget() != null ? job.getSpeedTarget() : speedTarget;
+    }
+
+    private void runJob(ConversionJob job) {
+        runGroup(List.of(job));
+    }
+
+    // Every job of the group reads the same input; the ones that still need
+    // encoding share one ffmpeg with an output each
+    private void runGroup(List<ConversionJob> group) {
+
+        List<ConversionJob> encoding = new ArrayList<>();
+        List<File> written = new ArrayList<>();   // each job's output, or its scratch file
+        List<Preset> keys = new ArrayList<>();    // what each job's output is cached under
+
+        VideoConverter converter = new VideoConverter(
+                group.get(0).getInput().getAbsolutePath(),
+                group.get(0).getSegments(),
+                event -> {
+                    for (int i = 0; i < encoding.size(); i++) {
+                        ConversionJob job = encoding.get(i);
+                        job.progressChanged(encoding.size() > 1 ? forOutput(event, written.get(i)) : event);
+                        listener.jobProgress(job);
+                    }
+                });
+        // Resumable runs keep their journal and pieces by the real output, so they write in place
+        ScratchDir scratchDir = resumable ? null : scratch;
+        converter.setResumable(resumable);
+        converter.setFollow(group.get(0).isFollow());
+        ProcessPriority jobPriority = group.get(0).getPriority();
+        converter.setPriority(jobPriority != null ? jobPriority : priority, cpus);
+        converter.setSpeedTarget(targetOf(group.get(0)));
+
+        for (ConversionJob job : group) {
+
+            Preset untuned = job.getPreset();
+            Preset preset = untuned;
+            File target;
+            String unsupported = null;
+            if (job.getState() == ConversionJob.State.PENDING) {
+                try {
+                    untuned = planPreset(job);
+                    preset = tunePreset(job, untuned);
+                } catch (IOException e) {
+                    unsupported = e.getMessage();
+                }
+            }
+
+            // Not the tier: that depends on the history, and the same job may get another one next time
+            Preset key = SpeedTiers.keyOf(untuned, targetOf(job));
+
+            if (!job.start(converter)) {
+                dropJob(job);   // cancelled or rejected while still queued
+                continue;
+            }
+
+            listener.jobStarted(job);
+
+            try {
+                // Fail here, before anything is written, rather than deep inside ffmpeg
+                if (unsupported != null) throw new IOException(unsupported);
+
+                String reused = reuseOutputs
+                        ? ConversionCache.get().reuse(job.getInput(), key, job.getOutput())
+                        : null;
+
+                if (reused != null) {
+                    job.finish(ConversionJob.State.DONE, reused);
+                    dropJob(job);
+                    continue;
+                }
+
+                ConversionCache.detach(job.getOutput());
+                target = scratchDir != null ? scratchDir.fileFor(job.getOutput()) : job.getOutput();
+            } catch (Exception e) {
+                job.finish(ConversionJob.State.FAILED, e.getMessage());
+                dropJob(job);
+                continue;
+            }
+
+            converter.addOutput(preset, untuned, target.getAbsolutePath());
+            encoding.add(job);
+            written.add(target);
+            keys.add(key);
+        }
+
+        if (encoding.isEmpty()) return;
+
+        DiskBudget.Lease disk = null;
+        long started = 0;
+        long encoded = 0;
+        try {
+            disk = DiskBudget.get().acquire(diskNeeds(encoding, written, converter.getPresets()),
+                    converter::isCancelled);
+
+            // Only the encode counts: waiting for disk space isn't how fast a preset runs
+            started = System.nanoTime();
+            try {
+                if (!converter.isCancelled()) converter.convert();
+            } finally {
+                encoded = System.nanoTime();
+            }
+
+            for (int i = 0; i < encoding.size(); i++) {
+                ConversionJob job = encoding.get(i);
+                if (converter.isCancelled()) {
+                    job.finish(ConversionJob.State.CANCELLED, "");
+                    continue;
+                }
+                try {
+                    if (!written.get(i).equals(job.getOutput())) {
+                        ScratchDir.moveIntoPlace(written.get(i), job.getOutput());
+                    }
+                    ConversionCache.get().recordOutput(job.getInput(), keys.get(i), job.getOutput());
+                    job.finish(ConversionJob.State.DONE, "");
+                } catch (IOException e) {
+                    job.finish(ConversionJob.State.FAILED, "Cannot move the output into place: " + e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            converter.cancel();
+            for (ConversionJob job : encoding) {
+                job.finish(ConversionJob.State.CANCELLED, "");
+            }
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            for (ConversionJob job : encoding) {
+                job.finish(ConversionJob.State.FAILED, e.getMessage());
+            }
+        } finally {
+            if (disk != null) disk.close();
+        }
+
+        // Whatever is left in the scratch folder didn't make it
+        for (int i = 0; i < encoding.size(); i++) {
+            if (!written.get(i).equals(encoding.get(i).getOutput())) {
+                written.get(i).delete();
+            }
+        }
+
+        double wallSeconds = (encoded - started) / 1e9;
+        List<Preset> ran = converter.getPresets();
+        for (int i = 0; i < encoding.size(); i++) {
+            JobMetrics.get().record(encoding.get(i), ran.get(i), converter, encoding.size(), wallSeconds);
+        }
+
+        for (ConversionJob job : encoding) {
+            dropJob(job);
+        }
+    }
+
+    // Space (and write slots) for every output; a scratch file needs room on
+    // the scratch disk while encoding and again where it is moved to
+    private static List<DiskBudget.Need> diskNeeds(List<ConversionJob> encoding, List<File> written,
+                                                   List<Preset> presets) throws IOException {
+
+        MediaInfo info = MediaProbe.get().probeOrNull(encoding.get(0).getInput());
+        List<DiskBudget.Need> needs = new ArrayList<>();
+
+        for (int i = 0; i < encoding.size(); i++) {
+            File output = encoding.get(i).getOutput();
+            long bytes = DiskBudget.estimateBytes(presets.get(i), info);
+            needs.add(new DiskBudget.Need(written.get(i), bytes, DiskBudget.isHeavy(bytes, info)));
+
+            // On the same disk the move is a rename and takes no extra room
+            if (!written.get(i).equals(output)
+                    && !DiskBudget.storeOf(written.get(i)).equals(DiskBudget.storeOf(output))) {
+                needs.add(new DiskBudget.Need(output, bytes, false));
+            }
+        }
+        return needs;
+    }
+
+    // ffmpeg reports one position for all outputs, which move together; the
+    // size (and so the bitrate) is each output's own
+    private static ProgressEvent forOutput(ProgressEvent event, File output) {
+        long size = output.length();
+        double seconds = event.getOutTimeSeconds();
+        return new ProgressEvent(seconds, event.getDurationSeconds(), event.getFrame(), event.getFps(),
+                event.getSpeed(), seconds > 0 ? size * 8 / 1000.0 / seconds : -1, size, event.isFinished());
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.swing.Icon;
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+// Rows of the conversion queue in MainWindow. Only touch this on the EDT.
+public class JobTableModel extends AbstractTableModel {
+
+    public static final int COL_PREVIEW = 0;
+    public static final int COL_FILE = 1;
+    public static final int COL_PRESET = 2;
+    public static final int COL_PLAN = 3;
+    public static final int COL_STATUS = 4;
+    public static final int COL_PROGRESS = 5;
+    public static final int COL_DETAILS = 6;
+
+    private static final String[] COLUMNS = { "", "File", "Preset", "Plan", "Status", "Progress", "Details" };
+
+    private final List<ConversionJob> jobs = new ArrayList<>();
+
+    // Thumbnail per job, fetched once (a recording that is still growing would
+    // otherwise get a new one on every repaint); null when the input has none
+    private final Map<ConversionJob, ImageIcon> thumbnails = new HashMap<>();
+    private final Set<ConversionJob> requested = new HashSet<>();
+
+    public void addJob(ConversionJob job) {
+        jobs.add(job);
+        int row = jobs.size() - 1;
+        fireTableRowsInserted(row, row);
+    }
+
+    public void jobUpdated(ConversionJob job) {
+        int row = jobs.indexOf(job);
+        if (row >= 0) {
+            fireTableRowsUpdated(row, row);
+        }
+    }
+
+    public ConversionJob getJobAt(int row) {
+        return jobs.get(row);
+    }
+
+    public List<ConversionJob> getJobs() {
+        return jobs;
+    }
+
+    public void removeFinished() {
+        Iterator<ConversionJob> it = jobs.iterator();
+        while (it.hasNext()) {
+            ConversionJob job = it.next();
+            if (job.getState().isFinished()) {
+                it.remove();
+                thumbnails.remove(job);
+                requested.remove(job);
+            }
+        }
+        fireTableDataChanged();
+    }
+
+    public boolean hasActiveJobs() {
+        for (ConversionJob job : jobs) {
+            if (!job.getState().isFinished()) return true;
+        }
+        return false;
+    }
+
+    // Over everything still in the table, ignoring cancelled rows; a long
+    // job counts for more than a short one (see EtaModel.progress)
+    public int overallProgress() {
+        return EtaModel.get().progress(jobs);
+    }
+
+    // When the table's unfinished jobs should be done, with this many side by side
+    public EtaModel.Estimate estimate(int workers) {
+        return EtaModel.get().estimate(jobs, workers);
+    }
+
+    @Override
+    public int getRowCount() {
+        return jobs.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        if (column == COL_PREVIEW) return Icon.class;
+        return column == COL_PROGRESS ? Integer.class : String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+
+        ConversionJob job = jobs.get(row);
+
+        switch (column) {
+            case COL_PREVIEW:
+                return thumbnail(job);
+            case COL_FILE:
+                return job.getInput().getName();
+            case COL_PRESET:
+                return job.getPreset().getName();
+            case COL_PLAN:
+                StreamCopyPlanner.Plan plan = job.getPlan();
+                return plan != null ? plan.describe() : "";
+            case COL_STATUS:
+                if (job.getState() == ConversionJob.State.RUNNING) {
+                    String summary = EtaModel.get().summary(job);
+                    if (!summary.isEmpty()) return statusText(job.getState()) + "  " + summary;
+                } else if (job.getState() == ConversionJob.State.PENDING) {
+                    double expected = EtaModel.get().expectedSeconds(job);
+                    if (expected >= 0) {
+                        return statusText(job.getState()) + "  ~" + ProgressEvent.formatDuration(expected);
+                    }
+                }
+                return statusText(job.getState());
+            case COL_PROGRESS:
+                if (job.getState() == ConversionJob.State.DONE) return 100;
+                ProgressEvent last = job.getLastEvent();
+                if (job.getState() == ConversionJob.State.RUNNING && last != null && last.getPercent() < 0) {
+                    return -1;   // no known end (followed recording); the renderer says so
+                }
+                return job.getProgress();
+            case COL_DETAILS:
+                if (job.getState() == ConversionJob.State.FAILED) {
+                    return job.getMessage().replace('\n', ' ');
+                }
+                if (job.getState() == ConversionJob.State.DONE && !job.getMessage().isEmpty()) {
+                    return job.getOutput().getAbsolutePath() + "  (" + job.getMessage() + ")";
+                }
+                return job.getOutput().getAbsolutePath();
+            default:
+                return null;
+        }
+    }
+
+    // Starts loading on first sight; the row repaints when the thumbnail arrives
+    private ImageIcon thumbnail(ConversionJob job) {
+        if (requested.add(job)) {
+            ThumbnailCache.get().request(job.getInput(), icon -> SwingUtilities.invokeLater(() -> {
+                if (!requested.contains(job)) return;   // cleared from the table meanwhile
+                thumbnails.put(job, icon);
+                jobUpdated(job);
+            }));
+        }
+        return thumbnails.get(job);
+    }
+
+    private static String statusText(ConversionJob.State state) {
+        switch (state) {
+            case PENDING:   return "Pending";
+            case RUNNING:   return "Running";
+            case DONE:      return "Done";
+            case FAILED:    return "Failed";
+            case CANCELLED: return "Cancelled";
+            default:        return state.name();
+        }
+    }
+}
@@ -18,10 +18,27 @@ public class LeonardoApp {
 
     public static void main(String[] args) {
 
+        // Headless batch mode: never touches Swing, so it runs on render boxes and from cron
+        if (BatchCli.isCommand(args)) {
+            System.exit(BatchCli.run(args));
+        }
+
+        // Spawning ffmpeg -version takes a while; let it run while Swing starts up
+        FFmpegUtil.detectAsync();
+
+        // Packaging only (build-cds-archive.sh): bring the window up once so the
+        // class-data-sharing archive records what startup loads, then quit
+        boolean cdsTraining = args.length > 0 && args[0].equals("--cds-training");
 
         // Start GUI on Event Dispatch Thread
         SwingUtilities.invokeLater(() -> {
-            new MainWindow();
+            MainWindow window = new MainWindow();
+            if (cdsTraining) {
+                SwingUtilities.invokeLater(() -> {
+                    window.dispose();
+                    System.exit(0);
+                });
+            }
         });
     }
 
@@ -22,13 +22,20 @@ import java.awt.Insets;
 import java.awt.datatransfer.DataFlavor;
 import java.io.File;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
+import javax.swing.ButtonGroup;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JComboBox;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
@@ -39,7 +46,12 @@ import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JProgressBar;
+import javax.swing.JRadioButtonMenuItem;
+import javax.swing.JScrollPane;
+import javax.swing.JSpinner;
+import javax.swing.JTable;
 import javax.swing.JTextField;
+import javax.swing.SpinnerNumberModel;
 import javax.swing.SwingUtilities;
 import javax.swing.TransferHandler;
 
@@ -51,21 +63,46 @@ public class MainWindow extends JFrame {
     private JTextField inputField;
     private JTextField outputField;
     private JButton convertButton;
+    private JButton multiButton;
     private JButton cancelButton;
     private JProgressBar progressBar;
-    private VideoConverter currentConverter;
+    private JobScheduler scheduler;
+    private ProgressBus progressBus;
+    private final AtomicReference<ProgressBus.Sample> pendingSample = new AtomicReference<>();
+    private JobTableModel jobTableModel;
+    private JTable jobTable;
+    private final Set<ConversionJob> reportedJobs = new HashSet<>();
     private JComboBox<Preset> presetComboBox;
     private javax.swing.Timer statusTimer;
-    private java.util.Properties config;
-    private java.io.File configFile;
+    private ConfigStore config;
+    private WatchFolderService watcher;
+    private JMenuItem watchItem;
+    private JMenuItem stopWatchItem;
 
     public MainWindow() {
 
         initializeConfig();
+        scheduler = new JobScheduler(loadWorkerCount(), new QueueListener());
+        scheduler.setStreamCopy(Boolean.parseBoolean(config.getProperty("smartCopy", "true")));
+        scheduler.setReuseOutputs(Boolean.parseBoolean(config.getProperty("skipConverted", "true")));
+        scheduler.setResumable(Boolean.parseBoolean(config.getProperty("resumable", "false")));
+        scheduler.setPreferHardware(Boolean.parseBoolean(config.getProperty("hardwareEncoders", "false")));
+        loadPriority();
+        loadSpeedTarget();
+        loadDiskSettings();
+
+        // Progress reaches the table at a steady 10 Hz, however chatty the jobs are.
+        // A sample the EDT hasn't got to yet is replaced, never queued behind.
+        progressBus = new ProgressBus(scheduler, ProgressBus.UI_PERIOD_MILLIS);
+        progressBus.subscribe(sample -> {
+            if (pendingSample.getAndSet(sample) == null) {
+                SwingUtilities.invokeLater(() -> showProgress(pendingSample.getAndSet(null)));
+            }
+        });
 
         setTitle(AppInfo.NAME + "  •  v" + AppInfo.VERSION);
         pack();
-        setMinimumSize(new Dimension(780, 430));  // tweak if you want
+        setMinimumSize(new Dimension(880, 600));  // tweak if you want
         setLocationRelativeTo(null);
 
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -79,6 +116,8 @@ public class MainWindow extends JFrame {
         setAppIcon();
 
         checkFFmpegOnStartup();  // AFTER UI exists
+        resumeWatching();
+        offerResume();
 
         setVisible(true);
     }
@@ -103,10 +142,17 @@ public class MainWindow extends JFrame {
         convertButton = new JButton("Convert");
         convertButton.addActionListener(e -> startConversion());
 
+        multiButton = new JButton("Convert to Several...");
+        multiButton.setToolTipText("Write several presets from one decode of the input");
+        multiButton.addActionListener(e -> startMultiConversion());
+
         cancelButton = new JButton("Cancel");
         cancelButton.setEnabled(false);
         cancelButton.addActionListener(e -> cancelConversion());
 
+        JButton clearButton = new JButton("Clear Finished");
+        clearButton.addActionListener(e -> clearFinishedJobs());
+
         // ----- Preset Label -----
         gbc.gridx = 0;
         gbc.gridy = 0;
@@ -163,13 +209,39 @@ public class MainWindow extends JFrame {
         // ----- Button Panel (Centered) -----
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 15, 0));
         buttonPanel.add(convertButton);
+        buttonPanel.add(multiButton);
         buttonPanel.add(cancelButton);
+        buttonPanel.add(clearButton);
 
         gbc.gridx = 0;
         gbc.gridy = 6;
         gbc.gridwidth = 2;
         panel.add(buttonPanel, gbc);
 
+        // ----- Job Queue -----
+        jobTableModel = new JobTableModel();
+        jobTable = new JTable(jobTableModel);
+        jobTable.setFillsViewportHeight(true);
+        jobTable.setRowHeight(ThumbnailCache.HEIGHT + 4);
+        jobTable.getColumnModel().getColumn(JobTableModel.COL_PROGRESS)
+                .setCellRenderer(new ProgressCellRenderer());
+        jobTable.getColumnModel().getColumn(JobTableModel.COL_PREVIEW).setPreferredWidth(ThumbnailCache.WIDTH + 4);
+        jobTable.getColumnModel().getColumn(JobTableModel.COL_PREVIEW).setMaxWidth(ThumbnailCache.WIDTH + 4);
+        jobTable.getColumnModel().getColumn(JobTableModel.COL_FILE).setPreferredWidth(200);
+        jobTable.getColumnModel().getColumn(JobTableModel.COL_PRESET).setPreferredWidth(160);
+        jobTable.getColumnModel().getColumn(JobTableModel.COL_PLAN).setPreferredWidth(170);
+        jobTable.getColumnModel().getColumn(JobTableModel.COL_STATUS).setPreferredWidth(150);
+        jobTable.getColumnModel().getColumn(JobTableModel.COL_PROGRESS).setPreferredWidth(90);
+        jobTable.getColumnModel().getColumn(JobTableModel.COL_DETAILS).setPreferredWidth(260);
+
+        JScrollPane queueScroll = new JScrollPane(jobTable);
+        queueScroll.setPreferredSize(new Dimension(700, 240));
+
+        gbc.gridy = 7;
+        gbc.weighty = 1;
+        gbc.fill = GridBagConstraints.BOTH;
+        panel.add(queueScroll, gbc);
+
         // Reset gridwidth
         gbc.gridwidth = 1;
 
@@ -204,6 +276,120 @@ public class MainWindow extends JFrame {
 
         // ===== FILE MENU =====
         JMenu fileMenu = new JMenu("File");
+        JMenuItem jobsItem = new JMenuItem("Concurrent Jobs...");
+        jobsItem.addActionListener(e -> chooseWorkerCount());
+        fileMenu.add(jobsItem);
+
+        watchItem = new JMenuItem("Watch Folder...");
+        watchItem.addActionListener(e -> chooseWatchFolder());
+        fileMenu.add(watchItem);
+
+        stopWatchItem = new JMenuItem("Stop Watching");
+        stopWatchItem.setEnabled(false);
+        stopWatchItem.addActionListener(e -> {
+            stopWatching();
+            config.remove("watchFolder");
+            saveConfig();
+        });
+        fileMenu.add(stopWatchItem);
+        fileMenu.addSeparator();
+
+        JCheckBoxMenuItem splitItem = new JCheckBoxMenuItem("Split Long Encodes Across Cores");
+        splitItem.setSelected(Boolean.parseBoolean(config.getProperty("segmentedEncoding", "false")));
+        splitItem.addActionListener(e -> {
+            config.setProperty("segmentedEncoding", String.valueOf(splitItem.isSelected()));
+            saveConfig();
+        });
+        fileMenu.add(splitItem);
+
+        JCheckBoxMenuItem copyItem = new JCheckBoxMenuItem("Copy Streams That Already Match");
+        copyItem.setSelected(scheduler.isStreamCopy());
+        copyItem.addActionListener(e -> {
+            scheduler.setStreamCopy(copyItem.isSelected());
+            config.setProperty("smartCopy", String.valueOf(copyItem.isSelected()));
+            saveConfig();
+        });
+        fileMenu.add(copyItem);
+
+        JCheckBoxMenuItem skipItem = new JCheckBoxMenuItem("Skip Files Already Converted");
+        skipItem.setSelected(scheduler.isReuseOutputs());
+        skipItem.addActionListener(e -> {
+            scheduler.setReuseOutputs(skipItem.isSelected());
+            config.setProperty("skipConverted", String.valueOf(skipItem.isSelected()));
+            saveConfig();
+        });
+        fileMenu.add(skipItem);
+
+        JCheckBoxMenuItem resumeItem = new JCheckBoxMenuItem("Resumable Long Conversions");
+        resumeItem.setSelected(scheduler.isResumable());
+        resumeItem.addActionListener(e -> {
+            scheduler.setResumable(resumeItem.isSelected());
+            config.setProperty("resumable", String.valueOf(resumeItem.isSelected()));
+            saveConfig();
+        });
+        fileMenu.add(resumeItem);
+
+        JCheckBoxMenuItem hardwareItem = new JCheckBoxMenuItem("Prefer Hardware Encoders");
+        hardwareItem.setSelected(scheduler.isPreferHardware());
+        hardwareItem.addActionListener(e -> {
+            scheduler.setPreferHardware(hardwareItem.isSelected());
+            config.setProperty("hardwareEncoders", String.valueOf(hardwareItem.isSelected()));
+            saveConfig();
+        });
+        fileMenu.add(hardwareItem);
+
+        JCheckBoxMenuItem followItem = new JCheckBoxMenuItem("Convert Recordings While They Are Written");
+        followItem.setSelected(isFollowing());
+        followItem.addActionListener(e -> {
+            config.setProperty("followRecordings", String.valueOf(followItem.isSelected()));
+            saveConfig();
+            if (watcher != null) {
+                watcher.setReportGrowing(followItem.isSelected());
+            }
+        });
+        fileMenu.add(followItem);
+
+        JMenu priorityMenu = new JMenu("Conversion Priority");
+        ButtonGroup priorityGroup = new ButtonGroup();
+        for (ProcessPriority priority : ProcessPriority.values()) {
+            JRadioButtonMenuItem item = new JRadioButtonMenuItem(priority.getLabel());
+            item.setSelected(scheduler.getPriority() == priority);
+            item.addActionListener(e -> {
+                scheduler.setPriority(priority);
+                config.setProperty("priority", priority.name());
+                saveConfig();
+            });
+            priorityGroup.add(item);
+            priorityMenu.add(item);
+        }
+        priorityMenu.addSeparator();
+        JMenuItem cpusItem = new JMenuItem("Limit to CPUs...");
+        cpusItem.addActionListener(e -> chooseCpus());
+        priorityMenu.add(cpusItem);
+        fileMenu.add(priorityMenu);
+
+        JMenuItem targetItem = new JMenuItem("Speed Target...");
+        targetItem.addActionListener(e -> chooseSpeedTarget());
+        fileMenu.add(targetItem);
+
+        JMenuItem scratchItem = new JMenuItem(scratchLabel());
+        JMenuItem inPlaceItem = new JMenuItem("Write Outputs in Place");
+        inPlaceItem.setEnabled(scheduler.getScratchDir() != null);
+        scratchItem.addActionListener(e -> {
+            chooseScratchFolder();
+            scratchItem.setText(scratchLabel());
+            inPlaceItem.setEnabled(scheduler.getScratchDir() != null);
+        });
+        inPlaceItem.addActionListener(e -> {
+            scheduler.setScratchDir(null);
+            config.remove("scratchDir");
+            saveConfig();
+            scratchItem.setText(scratchLabel());
+            inPlaceItem.setEnabled(false);
+        });
+        fileMenu.add(scratchItem);
+        fileMenu.add(inPlaceItem);
+        fileMenu.addSeparator();
         JMenuItem exitItem = new JMenuItem("Exit");
         exitItem.addActionListener(e -> System.exit(0));
         fileMenu.add(exitItem);
@@ -260,6 +446,7 @@ public class MainWindow extends JFrame {
     private void chooseFile() {
 
         JFileChooser chooser = new JFileChooser();
+        chooser.setAccessory(new ThumbnailPreview(chooser));
 
         // Restore last used directory
         String lastDir = config.getProperty("lastFolder");
@@ -301,27 +488,160 @@ public class MainWindow extends JFrame {
             return;
         }
 
-        presetComboBox.setEnabled(false);
-        convertButton.setEnabled(false);
-        progressBar.setValue(0);
-
-        // ✅ PASS THE PRESET INTO THE CONVERTER (THIS IS THE FIX)
-        currentConverter = new VideoConverter(
-                input,
-                output,
-                selectedPreset,
-                progressBar,
-                convertButton,
-                this
-        );
+        File inputFile = new File(input);
+        File outputFile = output.isEmpty()
+                ? selectedPreset.outputFor(inputFile, null)
+                : new File(output);
 
-        convertButton.setEnabled(false);
-        cancelButton.setEnabled(true);
+        if (!enqueue(new ConversionJob(inputFile, outputFile, selectedPreset, segmentCount()))) {
+            JOptionPane.showMessageDialog(this,
+                    "That output file is already being written by a queued job:\n" + outputFile);
+            return;
+        }
 
         config.setProperty("lastPreset", selectedPreset.getName());
         saveConfig();
+    }
 
-        currentConverter.execute();
+    // One input, several presets: the input is decoded once for all of them
+    private void startMultiConversion() {
+
+        String input = inputField.getText();
+        if (input.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Please select a file first.");
+            return;
+        }
+
+        List<Preset> presets = choosePresets();
+        if (presets.isEmpty()) return;
+
+        File inputFile = new File(input);
+        List<File> outputs = Presets.outputsFor(presets, inputFile, null);
+
+        List<ConversionJob> group = new ArrayList<>();
+        for (int i = 0; i < presets.size(); i++) {
+            group.add(new ConversionJob(inputFile, outputs.get(i), presets.get(i)));
+        }
+
+        if (!enqueueGroup(group)) {
+            JOptionPane.showMessageDialog(this,
+                    "One of those output files is already being written by a queued job.");
+            return;
+        }
+
+        showStatusMessage("Queued " + presets.size() + " versions of " + inputFile.getName());
+    }
+
+    // Checkbox per preset, remembering the last choice; empty if cancelled
+    private List<Preset> choosePresets() {
+
+        Set<String> previous = new HashSet<>(List.of(config.getProperty("multiPresets", "").split("\\|")));
+        Preset selectedPreset = (Preset) presetComboBox.getSelectedItem();
+
+        JPanel panel = new JPanel();
+        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+        panel.add(new JLabel("Write these versions of the input in one pass:"));
+        panel.add(Box.createVerticalStrut(8));
+
+        List<JCheckBox> boxes = new ArrayList<>();
+        for (int i = 0; i < presetComboBox.getItemCount(); i++) {
+            Preset preset = presetComboBox.getItemAt(i);
+            JCheckBox box = new JCheckBox(preset.getName(),
+                    previous.contains(preset.getName()) || preset == selectedPreset);
+            boxes.add(box);
+            panel.add(box);
+        }
+
+        int choice = JOptionPane.showConfirmDialog(this, panel, "Convert to Several Presets",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (choice != JOptionPane.OK_OPTION) return List.of();
+
+        List<Preset> chosen = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < boxes.size(); i++) {
+            if (boxes.get(i).isSelected()) {
+                chosen.add(presetComboBox.getItemAt(i));
+                names.add(presetComboBox.getItemAt(i).getName());
+            }
+        }
+
+        config.setProperty("multiPresets", String.join("|", names));
+        saveConfig();
+        return chosen;
+    }
+
+    // Queues every dropped file against the selected preset
+    private void enqueueFiles(List<File> files) {
+
+        Preset selectedPreset = (Preset) presetComboBox.getSelectedItem();
+        if (selectedPreset == null) {
+            JOptionPane.showMessageDialog(this, "Please select a preset.");
+            return;
+        }
+
+        int queued = 0;
+        int skipped = 0;
+
+        for (File file : files) {
+            if (!file.isFile()) {
+                skipped++;
+                continue;
+            }
+
+            ConversionJob job = new ConversionJob(file, selectedPreset.outputFor(file, null),
+                    selectedPreset, segmentCount());
+            if (enqueue(job)) {
+                queued++;
+            } else {
+                skipped++;
+            }
+        }
+
+        showStatusMessage("Queued " + queued + " file(s)"
+                + (skipped > 0 ? ", skipped " + skipped : "")
+                + " for " + selectedPreset.getName());
+    }
+
+    // Returns false if another unfinished job already writes the same output file
+    private boolean enqueue(ConversionJob job) {
+
+        for (ConversionJob existing : jobTableModel.getJobs()) {
+            if (!existing.getState().isFinished()
+                    && existing.getOutput().getAbsolutePath().equals(job.getOutput().getAbsolutePath())) {
+                return false;
+            }
+        }
+
+        job.setFollow(isFollowing());
+        jobTableModel.addJob(job);
+        scheduler.submit(job);
+
+        cancelButton.setEnabled(true);
+        progressBar.setValue(jobTableModel.overallProgress());
+        return true;
+    }
+
+    // Same check as enqueue, for all outputs of a single-decode group
+    private boolean enqueueGroup(List<ConversionJob> group) {
+
+        for (ConversionJob job : group) {
+            for (ConversionJob existing : jobTableModel.getJobs()) {
+                if (!existing.getState().isFinished()
+                        && existing.getOutput().getAbsolutePath().equals(job.getOutput().getAbsolutePath())) {
+                    return false;
+                }
+            }
+        }
+
+        for (ConversionJob job : group) {
+            job.setFollow(isFollowing());
+            jobTableModel.addJob(job);
+        }
+        scheduler.submitGroup(group);
+
+        cancelButton.setEnabled(true);
+        progressBar.setValue(jobTableModel.overallProgress());
+        return true;
     }
 
     private void enableDragAndDrop() {
@@ -338,6 +658,12 @@ public class MainWindow extends JFrame {
                     List<File> files = (List<File>) support.getTransferable()
                             .getTransferData(DataFlavor.javaFileListFlavor);
 
+                    // Several files go straight into the queue
+                    if (files.size() > 1) {
+                        enqueueFiles(files);
+                        return true;
+                    }
+
                     File file = files.get(0);
                     inputField.setText(file.getAbsolutePath());
 
@@ -352,101 +678,403 @@ public class MainWindow extends JFrame {
         });
     }
 
+    // Cancels the selected jobs, or the whole queue when nothing is selected
     private void cancelConversion() {
 
-        if (currentConverter != null) {
-            currentConverter.cancel(true);
+        int[] rows = jobTable.getSelectedRows();
+
+        if (rows.length == 0) {
+            for (ConversionJob job : jobTableModel.getJobs()) {
+                job.cancel();
+            }
+        } else {
+            for (int row : rows) {
+                jobTableModel.getJobAt(jobTable.convertRowIndexToModel(row)).cancel();
+            }
         }
 
-        cancelButton.setEnabled(false);
-        convertButton.setEnabled(true);
-        progressBar.setValue(0);
+        jobTableModel.fireTableDataChanged();
+        jobsChanged();
     }
 
-    private void initializePresets() {
+    private void clearFinishedJobs() {
+        reportedJobs.removeIf(job -> job.getState().isFinished());
+        jobTableModel.removeFinished();
+        jobsChanged();
+    }
 
-        // --- DaVinci (LOCKED PARAMETERS) ---
-        Preset davinciPreset = new Preset(
-                "DaVinci Resolve (Linux Free Compatible)",
-                ".mov",
-                java.util.List.of(
-                        "-vcodec", "mjpeg",
-                        "-q:v", "2",
-                        "-acodec", "pcm_s16be",
-                        "-q:a", "0",
-                        "-f", "mov"
-                )
-        );
+    // Scheduler callbacks arrive on worker threads; hop onto the EDT before touching the table
+    private class QueueListener implements JobScheduler.JobListener {
 
-        // --- OBS Remux (Fast, No Re-Encode) ---
-        Preset remuxPreset = new Preset(
-                "OBS Remux (Fast, No Re-Encode)",
-                ".mp4",
-                java.util.List.of(
-                        "-c", "copy"
-                )
-        );
+        @Override
+        public void jobStarted(ConversionJob job) {
+            SwingUtilities.invokeLater(() -> jobTableModel.jobUpdated(job));
+        }
 
-        // --- YouTube Export ---
-        Preset youtubePreset = new Preset(
-                "YouTube H.264",
-                ".mp4",
-                java.util.List.of(
-                        "-c:v", "libx264",
-                        "-preset", "slow",
-                        "-crf", "18",
-                        "-c:a", "aac",
-                        "-b:a", "192k"
-                )
-        );
+        @Override
+        public void jobProgress(ConversionJob job) {
+            // Sampled by the ProgressBus instead
+        }
 
-        // --- TikTok Vertical (9:16 Auto Crop) ---
-        Preset tiktokPreset = new Preset(
-                "TikTok Vertical 9:16 (Auto Crop)",
-                ".mp4",
-                java.util.List.of(
-                		"-vf", "crop=w=in_h*9/16:h=in_h:x=(in_w-in_h*9/16)/2:y=0,scale=1080:1920",
-                        "-c:v", "libx264",
-                        "-preset", "medium",
-                        "-crf", "20",
-                        "-pix_fmt", "yuv420p",
-                        "-profile:v", "high",
-                        "-level", "4.1",
-                        "-c:a", "aac",
-                        "-b:a", "160k",
-                        "-movflags", "+faststart"
-                )
-        );
+        @Override
+        public void jobFinished(ConversionJob job) {
+            SwingUtilities.invokeLater(() -> {
+                jobTableModel.jobUpdated(job);
+                jobsChanged();
+            });
+        }
+    }
 
-        presetComboBox.addItem(davinciPreset);
-        presetComboBox.addItem(remuxPreset);
-        presetComboBox.addItem(youtubePreset);
-        presetComboBox.addItem(tiktokPreset);
+    private void showProgress(ProgressBus.Sample sample) {
 
-        presetComboBox.setSelectedIndex(0); // Default to DaVinci
+        for (ConversionJob job : sample.getJobs()) {
+            jobTableModel.jobUpdated(job);
+        }
+
+        int percent = jobTableModel.overallProgress();
+        String throughput = sample.summary();
+        String eta = jobTableModel.estimate(scheduler.getWorkerCount()).summary();
+        progressBar.setValue(percent);
+        progressBar.setString(throughput.isEmpty() ? null
+                : percent + "%   " + throughput + (eta.isEmpty() ? "" : "   " + eta));
     }
 
-    public void conversionFinished() {
-        presetComboBox.setEnabled(true);
-        cancelButton.setEnabled(false);
+    private void jobsChanged() {
+
+        progressBar.setValue(jobTableModel.overallProgress());
+
+        boolean active = jobTableModel.hasActiveJobs();
+        cancelButton.setEnabled(active);
+
+        if (!active) {
+            progressBar.setString(null);
+            queueFinished();
+        }
     }
 
-    private void setOutputFromPreset(File file) {
+    // Once the queue drains, report on the jobs that haven't been reported yet
+    private void queueFinished() {
+
+        // Nobody may be at the screen while a folder is watched, so no dialogs then
+        boolean unattended = watcher != null && watcher.isRunning();
+
+        int done = 0;
+        int cancelled = 0;
+        ConversionJob firstFailure = null;
+        int failed = 0;
+
+        for (ConversionJob job : jobTableModel.getJobs()) {
+            if (!reportedJobs.add(job)) continue;
+
+            switch (job.getState()) {
+                case DONE:
+                    done++;
+                    break;
+                case CANCELLED:
+                    cancelled++;
+                    break;
+                default:
+                    failed++;
+                    if (firstFailure == null) firstFailure = job;
+            }
+        }
+
+        if (unattended) {
+            if (done + failed + cancelled > 0) {
+                showStatusMessage(done + " converted" + (failed > 0 ? ", " + failed + " failed" : "")
+                        + " - watching " + watcher.getDirectories().get(0).getName());
+            }
+        } else if (failed > 0) {
+            JOptionPane.showMessageDialog(this,
+                    failed + " conversion(s) failed.\n\n"
+                            + firstFailure.getInput().getName() + ":\n" + firstFailure.getMessage(),
+                    "Error",
+                    JOptionPane.ERROR_MESSAGE);
+        } else if (done > 0) {
+            JOptionPane.showMessageDialog(this,
+                    done == 1 ? "Conversion Complete!" : done + " Conversions Complete!",
+                    "Leonardo 10",
+                    JOptionPane.INFORMATION_MESSAGE);
+        } else if (cancelled > 0) {
+            progressBar.setValue(0);
+            JOptionPane.showMessageDialog(this,
+                    "Conversion Cancelled.",
+                    "Leonardo 10",
+                    JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+
+    // Conversions that were cancelled or cut short by a crash or reboot continue from their journal
+    private void offerResume() {
+        // Reading the journals is file I/O; keep it off the EDT while the window comes up
+        java.util.concurrent.CompletableFuture.supplyAsync(ResumableEncoder::pending)
+                .thenAccept(pending -> {
+                    if (!pending.isEmpty()) {
+                        SwingUtilities.invokeLater(() -> offerResume(pending));
+                    }
+                });
+    }
+
+    private void offerResume(List<ResumableEncoder.Pending> pending) {
+
+        StringBuilder sb = new StringBuilder(pending.size() + " conversion(s) were interrupted:\n\n");
+        for (ResumableEncoder.Pending p : pending) {
+            sb.append(p.getInput().getName()).append("  (").append(p.getPreset().getName())
+                    .append(", ").append(p.getPercent()).append("% done)\n");
+        }
+        sb.append("\nResume them now?");
+
+        Object[] choices = { "Resume", "Later", "Discard" };
+        int choice = JOptionPane.showOptionDialog(this, sb.toString(), "Interrupted Conversions",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, choices, choices[0]);
+
+        for (ResumableEncoder.Pending p : pending) {
+            if (choice == 0) {
+                ConversionJob job = new ConversionJob(p.getInput(), p.getOutput(), p.getPreset(), segmentCount());
+                job.setSpeedTarget(p.getSpeedTarget());
+                enqueue(job);
+            } else if (choice == 2) {
+                ResumableEncoder.discard(p.getInput(), p.getOutput(), p.getPreset(), p.getSpeedTarget());
+            }
+        }
+    }
+
+    // Every recording that lands in the folder is queued with the preset selected now
+    private void chooseWatchFolder() {
 
         Preset selectedPreset = (Preset) presetComboBox.getSelectedItem();
-        if (selectedPreset == null) return;
+        if (selectedPreset == null) {
+            JOptionPane.showMessageDialog(this, "Please select a preset.");
+            return;
+        }
 
-        String baseName = file.getAbsolutePath().replaceAll("\\.[^.]+$", "");
-        String newOutput = baseName + selectedPreset.getOutputExtension();
+        JFileChooser chooser = new JFileChooser(config.getProperty("watchFolder", config.getProperty("lastFolder")));
+        chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        chooser.setDialogTitle("Watch Folder for New Recordings");
 
-        boolean overwritePrevented = false;
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
 
-        if (newOutput.equals(file.getAbsolutePath())) {
-            newOutput = baseName + "_"
-                    + selectedPreset.getName().replaceAll("\\s+", "_")
-                    + selectedPreset.getOutputExtension();
-            overwritePrevented = true;
+        File dir = chooser.getSelectedFile();
+        if (startWatching(dir, selectedPreset)) {
+            config.setProperty("watchFolder", dir.getAbsolutePath());
+            config.setProperty("watchPreset", selectedPreset.getName());
+            saveConfig();
         }
+    }
+
+    // Keep watching across restarts, so an unattended machine picks up where it left off
+    private void resumeWatching() {
+
+        String folder = config.getProperty("watchFolder");
+        Preset preset = Presets.find(config.getProperty("watchPreset", ""));
+
+        if (folder != null && preset != null && new File(folder).isDirectory()) {
+            startWatching(new File(folder), preset);
+        }
+    }
+
+    private void loadPriority() {
+        try {
+            scheduler.setPriority(ProcessPriority.parse(config.getProperty("priority", "NORMAL")));
+            scheduler.setCpus(config.getProperty("cpus"));
+        } catch (IllegalArgumentException e) {
+            // Hand-edited config; the defaults will do
+        }
+    }
+
+    private void chooseCpus() {
+
+        String current = scheduler.getCpus();
+        Object answer = JOptionPane.showInputDialog(this,
+                "Run FFmpeg only on these CPUs (for example 4-15 or 0,2,4-7).\n"
+                        + "Leave empty to use all " + Runtime.getRuntime().availableProcessors() + " of them.",
+                "Limit to CPUs", JOptionPane.PLAIN_MESSAGE, null, null, current != null ? current : "");
+        if (answer == null) return;
+
+        String cpus = answer.toString().replace(" ", "");
+        try {
+            scheduler.setCpus(cpus.isEmpty() ? null : cpus);
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Limit to CPUs", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        if (cpus.isEmpty()) {
+            config.remove("cpus");
+        } else {
+            config.setProperty("cpus", cpus);
+        }
+        saveConfig();
+    }
+
+    private void loadDiskSettings() {
+        String scratch = config.getProperty("scratchDir");
+        if (scratch != null && new File(scratch).isDirectory()) {
+            scheduler.setScratchDir(new File(scratch));
+        }
+        try {
+            DiskBudget.get().setWritersPerDisk(Integer.parseInt(
+                    config.getProperty("diskWriters", String.valueOf(DiskBudget.DEFAULT_WRITERS_PER_DISK))));
+        } catch (IllegalArgumentException e) {
+            // Hand-edited config; keep the default
+        }
+    }
+
+    private String scratchLabel() {
+        File dir = scheduler.getScratchDir();
+        return dir != null ? "Scratch Folder... (" + dir.getName() + ")" : "Scratch Folder...";
+    }
+
+    // Outputs are encoded on a fast disk first and moved into place when done
+    private void chooseScratchFolder() {
+
+        File current = scheduler.getScratchDir();
+        JFileChooser chooser = new JFileChooser(current != null ? current.getAbsolutePath() : null);
+        chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        chooser.setDialogTitle("Scratch Folder (Encode Here, Then Move Into Place)");
+
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        File dir = chooser.getSelectedFile();
+        scheduler.setScratchDir(dir);
+        config.setProperty("scratchDir", dir.getAbsolutePath());
+        saveConfig();
+    }
+
+    private void loadSpeedTarget() {
+        String target = config.getProperty("speedTarget");
+        try {
+            scheduler.setSpeedTarget(target != null ? SpeedTarget.parse(target) : null);
+        } catch (IllegalArgumentException e) {
+            // Hand-edited config; no target then
+        }
+    }
+
+    private void chooseSpeedTarget() {
+
+        SpeedTarget current = scheduler.getSpeedTarget();
+        Object answer = JOptionPane.showInputDialog(this,
+                "Finish each conversion within a time (15m, 1h30m) or at a speed (2x).\n"
+                        + "H.264/HEVC presets switch to a faster x264 setting when needed.\n"
+                        + "Leave empty to always use the presets as they are.",
+                "Speed Target", JOptionPane.PLAIN_MESSAGE, null, null, current != null ? current.toString() : "");
+        if (answer == null) return;
+
+        String text = answer.toString().trim();
+        try {
+            scheduler.setSpeedTarget(text.isEmpty() ? null : SpeedTarget.parse(text));
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Speed Target", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        if (text.isEmpty()) {
+            config.remove("speedTarget");
+        } else {
+            config.setProperty("speedTarget", scheduler.getSpeedTarget().toString());
+        }
+        saveConfig();
+    }
+
+    // Jobs start on recordings that are still growing and finish right after them
+    private boolean isFollowing() {
+        return Boolean.parseBoolean(config.getProperty("followRecordings", "false"));
+    }
+
+    private boolean startWatching(File dir, Preset preset) {
+
+        stopWatching();
+
+        WatchFolderService service = new WatchFolderService(List.of(dir), WatchFolderService.DEFAULT_SETTLE_MILLIS);
+        service.setReportGrowing(isFollowing());
+
+        try {
+            service.start(file -> SwingUtilities.invokeLater(() -> {
+                File output = preset.outputFor(file, null);
+                service.ignore(output);   // don't pick our own output up as a new recording
+                ConversionJob job = new ConversionJob(file, output, preset, segmentCount());
+                job.setPriority(ProcessPriority.BACKGROUND);   // nobody is sitting waiting for these
+                if (enqueue(job)) {
+                    showStatusMessage("Queued new recording " + file.getName());
+                }
+            }));
+        } catch (java.io.IOException e) {
+            JOptionPane.showMessageDialog(this, "Cannot watch " + dir + ":\n" + e.getMessage(),
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
+
+        watcher = service;
+        watchItem.setText("Watch Folder... (" + dir.getName() + ")");
+        stopWatchItem.setEnabled(true);
+        showStatusMessage("Watching " + dir + " for " + preset.getName());
+        return true;
+    }
+
+    private void stopWatching() {
+        if (watcher == null) return;
+        watcher.stop();
+        watcher = null;
+        watchItem.setText("Watch Folder...");
+        stopWatchItem.setEnabled(false);
+    }
+
+    private int segmentCount() {
+        return Boolean.parseBoolean(config.getProperty("segmentedEncoding", "false"))
+                ? SegmentedEncoder.defaultSegmentCount()
+                : 0;
+    }
+
+    private int loadWorkerCount() {
+        try {
+            int workers = Integer.parseInt(config.getProperty("maxJobs", ""));
+            if (workers >= 1) return workers;
+        } catch (NumberFormatException ignored) { }
+
+        return JobScheduler.defaultWorkerCount();
+    }
+
+    private void chooseWorkerCount() {
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        JSpinner spinner = new JSpinner(
+                new SpinnerNumberModel(scheduler.getWorkerCount(), 1, Math.max(cores, scheduler.getWorkerCount()), 1));
+
+        JPanel panel = new JPanel(new BorderLayout(0, 8));
+        panel.add(new JLabel("Conversions to run at the same time (" + cores + " CPU cores):"),
+                BorderLayout.NORTH);
+        panel.add(spinner, BorderLayout.CENTER);
+
+        int result = JOptionPane.showConfirmDialog(this, panel, "Concurrent Jobs",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+
+        if (result == JOptionPane.OK_OPTION) {
+            int workers = (Integer) spinner.getValue();
+            scheduler.setWorkerCount(workers);
+            config.setProperty("maxJobs", String.valueOf(workers));
+            saveConfig();
+        }
+    }
+
+    private void initializePresets() {
+
+        for (Preset preset : Presets.builtIn()) {
+            presetComboBox.addItem(preset);
+        }
+
+        presetComboBox.setSelectedIndex(0); // Default to DaVinci
+    }
+
+    private void setOutputFromPreset(File file) {
+
+        Preset selectedPreset = (Preset) presetComboBox.getSelectedItem();
+        if (selectedPreset == null) return;
+
+        String newOutput = selectedPreset.outputFor(file, null).getAbsolutePath();
+
+        String baseName = file.getAbsolutePath().replaceAll("\\.[^.]+$", "");
+        boolean overwritePrevented =
+                !newOutput.equals(baseName + selectedPreset.getOutputExtension());
 
         outputField.setText(newOutput);
 
@@ -486,37 +1114,13 @@ public class MainWindow extends JFrame {
     }
 
     private void initializeConfig() {
-
-        try {
-            String home = System.getProperty("user.home");
-            java.io.File dir = new java.io.File(home, ".leonardo");
-
-            if (!dir.exists()) {
-                dir.mkdir();
-            }
-
-            configFile = new java.io.File(dir, "config.properties");
-            config = new java.util.Properties();
-
-            if (configFile.exists()) {
-                try (java.io.FileInputStream fis = new java.io.FileInputStream(configFile)) {
-                    config.load(fis);
-                }
-            }
-
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        config = new ConfigStore(AppPaths.resolve("config.properties"));
         applySavedTheme();
     }
 
+    // Written in the background a moment later, coalesced with any other change
     private void saveConfig() {
-
-        try (java.io.FileOutputStream fos = new java.io.FileOutputStream(configFile)) {
-            config.store(fos, "Leonardo Configuration");
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        config.save();
     }
 
     private void restoreLastPreset() {
@@ -580,44 +1184,37 @@ public class MainWindow extends JFrame {
         }
     }
 
-    private boolean isFFmpegAvailable() {
-        try {
-            ProcessBuilder pb = new ProcessBuilder("ffmpeg", "-version");
-            pb.redirectErrorStream(true);
-            Process process = pb.start();
-
-            if (!process.waitFor(2, java.util.concurrent.TimeUnit.SECONDS)) {
-                process.destroy();
-                return false;
+    // The ffmpeg probe runs in the background (LeonardoApp starts it before the
+    // window exists); the window shows immediately and reacts when it completes.
+    private void checkFFmpegOnStartup() {
+        FFmpegUtil.detectAsync().thenAccept(available -> {
+            if (!available) {
+                SwingUtilities.invokeLater(this::ffmpegMissing);
+            } else {
+                CapabilityRegistry.warmAsync();   // off the EDT: this callback can run on it
             }
-
-            return process.exitValue() == 0;
-        } catch (Exception e) {
-            return false;
-        }
+        });
     }
 
-    private void checkFFmpegOnStartup() {
-
-        if (!isFFmpegAvailable()) {
-
-            JOptionPane.showMessageDialog(
-                    this,
-                    "FFmpeg was not found on your system.\n\n" +
-                    "Leonardo requires FFmpeg to convert media files.\n\n" +
-                    "Install FFmpeg using your package manager:\n" +
-                    "Arch / Garuda: sudo pacman -S ffmpeg\n" +
-                    "Ubuntu / Debian: sudo apt install ffmpeg\n" +
-                    "Fedora: sudo dnf install ffmpeg\n\n" +
-                    "Then restart Leonardo.",
-                    "FFmpeg Not Found",
-                    JOptionPane.WARNING_MESSAGE
-            );
+    private void ffmpegMissing() {
 
-            convertButton.setEnabled(false);
-            convertButton.setToolTipText("Disabled: FFmpeg is not installed");
-            statusLabel.setText("FFmpeg not detected — conversion disabled");
-        }
+        convertButton.setEnabled(false);
+        convertButton.setToolTipText("Disabled: FFmpeg is not installed");
+        multiButton.setEnabled(false);
+        statusLabel.setText("FFmpeg not detected — conversion disabled");
+
+        JOptionPane.showMessageDialog(
+                this,
+                "FFmpeg was not found on your system.\n\n" +
+                "Leonardo requires FFmpeg to convert media files.\n\n" +
+                "Install FFmpeg using your package manager:\n" +
+                "Arch / Garuda: sudo pacman -S ffmpeg\n" +
+                "Ubuntu / Debian: sudo apt install ffmpeg\n" +
+                "Fedora: sudo dnf install ffmpeg\n\n" +
+                "Then restart Leonardo.",
+                "FFmpeg Not Found",
+                JOptionPane.WARNING_MESSAGE
+        );
     }
 
     private void showUserGuide() {
@@ -705,28 +1302,24 @@ public class MainWindow extends JFrame {
         }
     }
 
+    // Prebaked sizes (see tools/IconSizes.java): decoding and SCALE_SMOOTH-ing the
+    // 1024px artwork six times used to cost a noticeable part of startup
     private void setAppIcon() {
-        try {
-            URL iconURL = getClass().getResource("/com/ross/leonardo/resources/leo_icon.png");
-            if (iconURL == null) {
-                System.out.println("Icon not found: /com/ross/leonardo/resources/leo_icon.png");
-                return;
-            }
-
-            ImageIcon base = new ImageIcon(iconURL);
-            Image img = base.getImage();
 
-            java.util.List<Image> icons = new java.util.ArrayList<>();
-            int[] sizes = { 16, 32, 48, 64, 128, 256 };
+        java.util.List<Image> icons = new java.util.ArrayList<>();
 
-            for (int s : sizes) {
-                icons.add(img.getScaledInstance(s, s, Image.SCALE_SMOOTH));
+        for (int size : new int[] { 16, 32, 48, 64, 128, 256 }) {
+            URL iconURL = getClass().getResource("/com/ross/leonardo/resources/icons/leo_icon_" + size + ".png");
+            if (iconURL != null) {
+                icons.add(new ImageIcon(iconURL).getImage());
             }
+        }
 
-            setIconImages(icons);
-
-        } catch (Exception ex) {
-            ex.printStackTrace();
+        if (icons.isEmpty()) {
+            System.out.println("Icons not found: /com/ross/leonardo/resources/icons/");
+            return;
         }
+
+        setIconImages(icons);
     }
-}
\ No newline at end of file
+}
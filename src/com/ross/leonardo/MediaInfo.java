@@ -0,0 +1,227 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// What ffprobe knows about one input file. Immutable; built by MediaProbe.
+public class MediaInfo {
+
+    public static class Stream {
+
+        private final int index;
+        private final String codecType;
+        private final String codecName;
+        private final String profile;
+        private final String pixelFormat;
+        private final int width;
+        private final int height;
+        private final double frameRate;
+        private final long bitRate;
+        private final int sampleRate;
+        private final int channels;
+        private final int level;
+
+        Stream(Map<String, Object> json) {
+            this.index = (int) number(json, "index");
+            this.codecType = string(json, "codec_type");
+            this.codecName = string(json, "codec_name");
+            this.profile = string(json, "profile");
+            this.pixelFormat = string(json, "pix_fmt");
+            this.width = (int) number(json, "width");
+            this.height = (int) number(json, "height");
+            this.frameRate = rational(string(json, "avg_frame_rate"), string(json, "r_frame_rate"));
+            this.bitRate = (long) number(json, "bit_rate");
+            this.sampleRate = (int) number(json, "sample_rate");
+            this.channels = (int) number(json, "channels");
+            this.level = (int) number(json, "level");
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getCodecType() {
+            return codecType;
+        }
+
+        public String getCodecName() {
+            return codecName;
+        }
+
+        public String getProfile() {
+            return profile;
+        }
+
+        public String getPixelFormat() {
+            return pixelFormat;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public double getFrameRate() {
+            return frameRate;
+        }
+
+        public long getBitRate() {
+            return bitRate;
+        }
+
+        public int getSampleRate() {
+            return sampleRate;
+        }
+
+        public int getChannels() {
+            return channels;
+        }
+
+        // H.264 style: 41 means level 4.1; 0 if unknown
+        public int getLevel() {
+            return level;
+        }
+
+        public boolean isVideo() {
+            return "video".equals(codecType);
+        }
+
+        public boolean isAudio() {
+            return "audio".equals(codecType);
+        }
+    }
+
+    private final double durationSeconds;
+    private final double startTime;
+    private final long bitRate;
+    private final String formatName;
+    private final List<Stream> streams;
+
+    @SuppressWarnings("unchecked")
+    MediaInfo(Map<String, Object> json) {
+
+        Map<String, Object> format = json.get("format") instanceof Map
+                ? (Map<String, Object>) json.get("format")
+                : Map.of();
+
+        List<Stream> list = new ArrayList<>();
+        if (json.get("streams") instanceof List) {
+            for (Object s : (List<Object>) json.get("streams")) {
+                if (s instanceof Map) {
+                    list.add(new Stream((Map<String, Object>) s));
+                }
+            }
+        }
+
+        this.streams = Collections.unmodifiableList(list);
+        this.formatName = string(format, "format_name");
+        this.startTime = number(format, "start_time");
+        this.bitRate = (long) number(format, "bit_rate");
+
+        // Some containers only carry a duration on the streams
+        double duration = number(format, "duration");
+        if (duration <= 0 && json.get("streams") instanceof List) {
+            for (Object s : (List<Object>) json.get("streams")) {
+                if (s instanceof Map) {
+                    duration = Math.max(duration, number((Map<String, Object>) s, "duration"));
+                }
+            }
+        }
+        this.durationSeconds = duration;
+    }
+
+    // 0 when the container doesn't say (e.g. a file that is still being written)
+    public double getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public double getStartTime() {
+        return startTime;
+    }
+
+    public long getBitRate() {
+        return bitRate;
+    }
+
+    public String getFormatName() {
+        return formatName;
+    }
+
+    public List<Stream> getStreams() {
+        return streams;
+    }
+
+    // The stream ffmpeg would pick by default is usually the first one of its type
+    public Stream firstVideoStream() {
+        for (Stream s : streams) {
+            if (s.isVideo()) return s;
+        }
+        return null;
+    }
+
+    public Stream firstAudioStream() {
+        for (Stream s : streams) {
+            if (s.isAudio()) return s;
+        }
+        return null;
+    }
+
+    public boolean hasVideo() {
+        return firstVideoStream() != null;
+    }
+
+    public boolean hasAudio() {
+        return firstAudioStream() != null;
+    }
+
+    // ffprobe prints most numbers as strings ("duration": "12.345000")
+    private static double number(Map<String, Object> json, String key) {
+        Object value = json.get(key);
+        if (value instanceof Number) return ((Number) value).doubleValue();
+        if (value instanceof String) {
+            try {
+                return Double.parseDouble((String) value);
+            } catch (NumberFormatException ignored) {
+                // N/A
+            }
+        }
+        return 0;
+    }
+
+    private static String string(Map<String, Object> json, String key) {
+        Object value = json.get(key);
+        return value != null ? value.toString() : null;
+    }
+
+    // "30000/1001" -> 29.97; falls back to the second value when the first is 0/0
+    private static double rational(String... values) {
+        for (String value : values) {
+            if (value == null) continue;
+            int slash = value.indexOf('/');
+            try {
+                if (slash < 0) {
+                    double d = Double.parseDouble(value);
+                    if (d > 0) return d;
+                } else {
+                    double num = Double.parseDouble(value.substring(0, slash));
+                    double den = Double.parseDouble(value.substring(slash + 1));
+                    if (num > 0 && den > 0) return num / den;
+                }
+            } catch (NumberFormatException ignored) { }
+        }
+        return 0;
+    }
+}
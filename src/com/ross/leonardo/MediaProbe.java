@@ -0,0 +1,224 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// One ffprobe per input file, ever: results are cached in memory and as raw
+// ffprobe JSON under ~/.leonardo/probe-cache, keyed by path + size + mtime so
+// an edited file is simply a cache miss. Shared by every job in the process.
+public class MediaProbe {
+
+    // The file is missing or ffprobe can't make sense of it; converting it would fail too
+    public static class InvalidMediaException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        public InvalidMediaException(String message) {
+            super(message);
+        }
+    }
+
+    private static final int MEMORY_ENTRIES = 2000;
+
+    // Every edit of a file (and every probe of a growing recording) adds an
+    // entry, so the oldest go once there are this many, checked every PRUNE_EVERY
+    private static final int DISK_ENTRIES = 5000;
+    private static final int PRUNE_EVERY = 100;
+
+    private static final MediaProbe INSTANCE = new MediaProbe(AppPaths.resolve("probe-cache"));
+
+    private final File cacheDir;
+    private final AtomicInteger stored = new AtomicInteger();
+    private final Map<String, MediaInfo> memory = Collections.synchronizedMap(
+            new LinkedHashMap<String, MediaInfo>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, MediaInfo> eldest) {
+                    return size() > MEMORY_ENTRIES;
+                }
+            });
+
+    // Two jobs asking about the same file at once share one ffprobe
+    private final ConcurrentHashMap<String, CompletableFuture<MediaInfo>> inFlight = new ConcurrentHashMap<>();
+
+    // ffprobe is I/O bound and short; two at a time keeps a slow mount busy
+    // without competing with the encoders for CPU
+    private final ExecutorService prefetcher = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "leonardo-probe");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public MediaProbe(File cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    public static MediaProbe get() {
+        return INSTANCE;
+    }
+
+    public MediaInfo probe(File file) throws IOException, InterruptedException {
+
+        if (!file.isFile()) {
+            throw new InvalidMediaException("No such file: " + file);
+        }
+
+        String key = cacheKey(file);
+
+        MediaInfo cached = memory.get(key);
+        if (cached != null) return cached;
+
+        CompletableFuture<MediaInfo> mine = new CompletableFuture<>();
+        CompletableFuture<MediaInfo> existing = inFlight.putIfAbsent(key, mine);
+
+        if (existing != null) {
+            try {
+                return existing.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) throw (IOException) cause;
+                throw new IOException(cause.getMessage(), cause);
+            }
+        }
+
+        try {
+            MediaInfo info = load(file, key);
+            memory.put(key, info);
+            mine.complete(info);
+            return info;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // Probes in the background so the answer is cached by the time a job needs it
+    public CompletableFuture<MediaInfo> prefetch(File file) {
+        CompletableFuture<MediaInfo> result = new CompletableFuture<>();
+        prefetcher.execute(() -> {
+            try {
+                result.complete(probe(file));
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    // The metadata if it is already in memory, otherwise null; never runs ffprobe
+    public MediaInfo cached(File file) {
+        return file.isFile() ? memory.get(cacheKey(file)) : null;
+    }
+
+    // For callers that can carry on without metadata (progress just goes indeterminate)
+    public MediaInfo probeOrNull(File file) {
+        try {
+            return probe(file);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private MediaInfo load(File file, String key) throws IOException, InterruptedException {
+
+        File diskEntry = new File(cacheDir, Digests.sha1(key) + ".json");
+
+        if (diskEntry.isFile()) {
+            try {
+                MediaInfo info = parse(Files.readString(diskEntry.toPath(), StandardCharsets.UTF_8));
+                diskEntry.setLastModified(System.currentTimeMillis());   // recently used: pruned last
+                return info;
+            } catch (IOException | IllegalArgumentException e) {
+                diskEntry.delete();   // corrupt entry, probe again
+            }
+        }
+
+        String json;
+        try {
+            json = new FFmpegRunner().capture(List.of(
+                    "ffprobe", "-v", "error",
+                    "-print_format", "json",
+                    "-show_format", "-show_streams",
+                    file.getAbsolutePath()));
+        } catch (FFmpegRunner.ExitException e) {
+            throw new InvalidMediaException(file.getName() + " is not a media file ffprobe can read");
+        }
+
+        MediaInfo info;
+        try {
+            info = parse(json);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidMediaException("Unreadable ffprobe output for " + file.getName() + ": " + e.getMessage());
+        }
+
+        store(diskEntry, json);
+        return info;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MediaInfo parse(String json) {
+        Object root = Json.parse(json);
+        if (!(root instanceof Map)) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        return new MediaInfo((Map<String, Object>) root);
+    }
+
+    // Temp file + rename so a crash never leaves half an entry behind
+    private void store(File diskEntry, String json) {
+        try {
+            Files.createDirectories(cacheDir.toPath());
+            Path tmp = Files.createTempFile(cacheDir.toPath(), "probe-", ".tmp");
+            Files.writeString(tmp, json, StandardCharsets.UTF_8);
+            Files.move(tmp, diskEntry.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The cache is an optimisation; a read-only home directory just means re-probing
+        }
+
+        if (stored.incrementAndGet() % PRUNE_EVERY == 0) prune();
+    }
+
+    // Least recently used first, down to the limit
+    private void prune() {
+        File[] files = cacheDir.listFiles((d, name) -> name.endsWith(".json"));
+        if (files == null || files.length <= DISK_ENTRIES) return;
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (int i = 0; i < files.length - DISK_ENTRIES; i++) {
+            files[i].delete();
+        }
+    }
+
+    private static String cacheKey(File file) {
+        return file.getAbsolutePath() + "|" + file.length() + "|" + file.lastModified();
+    }
+}
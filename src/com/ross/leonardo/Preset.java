@@ -11,6 +11,7 @@
 
 package com.ross.leonardo;
 
+import java.io.File;
 import java.util.List;
 
 public class Preset {
@@ -37,6 +38,33 @@ public class Preset {
         return ffmpegArgs;
     }
 
+    // Same naming rule the GUI has always used: swap the extension, and never overwrite the input
+    public File outputFor(File input, File outputDir) {
+
+        String fileName = input.getName();
+        String baseName = fileName.replaceAll("\\.[^.]+$", "");
+        File dir = outputDir != null ? outputDir : input.getAbsoluteFile().getParentFile();
+
+        File output = new File(dir, baseName + outputExtension);
+
+        if (output.getAbsolutePath().equals(input.getAbsolutePath())) {
+            output = taggedOutputFor(input, outputDir);
+        }
+
+        return output;
+    }
+
+    // "clip_YouTube_H.264.mp4": for when several presets write next to each other
+    public File taggedOutputFor(File input, File outputDir) {
+
+        String baseName = input.getName().replaceAll("\\.[^.]+$", "");
+        File dir = outputDir != null ? outputDir : input.getAbsoluteFile().getParentFile();
+
+        return new File(dir, baseName + "_"
+                + name.replaceAll("\\s+", "_")
+                + outputExtension);
+    }
+
     @Override
     public String toString() {
         return name;
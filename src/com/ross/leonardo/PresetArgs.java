@@ -0,0 +1,115 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Splits a preset's flat ffmpeg argument list into its video, audio and
+// container parts, for the code paths that encode those separately.
+public final class PresetArgs {
+
+    private static final Set<String> VIDEO_OPTIONS = Set.of(
+            "-vf", "-filter:v", "-c:v", "-vcodec", "-codec:v", "-preset", "-crf", "-tune",
+            "-pix_fmt", "-profile:v", "-level", "-level:v", "-q:v", "-qscale:v", "-b:v",
+            "-maxrate", "-bufsize", "-g", "-r", "-s", "-x264-params", "-x264opts");
+
+    private static final Set<String> AUDIO_OPTIONS = Set.of(
+            "-af", "-filter:a", "-c:a", "-acodec", "-codec:a", "-b:a", "-q:a", "-qscale:a",
+            "-ar", "-ac");
+
+    private static final Set<String> CONTAINER_OPTIONS = Set.of(
+            "-f", "-movflags");
+
+    // Options that apply to every stream
+    private static final Set<String> SHARED_OPTIONS = Set.of(
+            "-c", "-codec");
+
+    private PresetArgs() {
+        // Prevent instantiation
+    }
+
+    public static List<String> videoArgs(List<String> args) {
+        return select(args, VIDEO_OPTIONS, true);
+    }
+
+    public static List<String> audioArgs(List<String> args) {
+        return select(args, AUDIO_OPTIONS, true);
+    }
+
+    public static List<String> containerArgs(List<String> args) {
+        return select(args, CONTAINER_OPTIONS, false);
+    }
+
+    // The preset without its video options (to swap in "-c:v copy")
+    public static List<String> withoutVideoArgs(List<String> args) {
+        return exclude(args, VIDEO_OPTIONS);
+    }
+
+    public static List<String> withoutAudioArgs(List<String> args) {
+        return exclude(args, AUDIO_OPTIONS);
+    }
+
+    // libx264, mjpeg, copy ... or null if the preset leaves it to ffmpeg
+    public static String videoCodec(List<String> args) {
+        String codec = value(args, "-c:v", "-vcodec", "-codec:v");
+        return codec != null ? codec : value(args, "-c", "-codec");
+    }
+
+    public static String audioCodec(List<String> args) {
+        String codec = value(args, "-c:a", "-acodec", "-codec:a");
+        return codec != null ? codec : value(args, "-c", "-codec");
+    }
+
+    public static boolean hasOption(List<String> args, String... options) {
+        return value(args, options) != null;
+    }
+
+    // Value of the last occurrence of any of the options, like ffmpeg itself
+    public static String value(List<String> args, String... options) {
+        String result = null;
+        for (int i = 0; i + 1 < args.size(); i++) {
+            for (String option : options) {
+                if (args.get(i).equals(option)) {
+                    result = args.get(i + 1);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static List<String> exclude(List<String> args, Set<String> options) {
+        List<String> result = new ArrayList<>();
+
+        for (int i = 0; i + 1 < args.size(); i += 2) {
+            String option = args.get(i);
+            if (!options.contains(option)) {
+                result.add(option);
+                result.add(args.get(i + 1));
+            }
+        }
+
+        return result;
+    }
+
+    private static List<String> select(List<String> args, Set<String> options, boolean includeShared) {
+        List<String> result = new ArrayList<>();
+
+        for (int i = 0; i + 1 < args.size(); i += 2) {
+            String option = args.get(i);
+            if (options.contains(option) || (includeShared && SHARED_OPTIONS.contains(option))) {
+                result.add(option);
+                result.add(args.get(i + 1));
+            }
+        }
+
+        return result;
+    }
+}
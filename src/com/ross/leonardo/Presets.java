@@ -0,0 +1,125 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public final class Presets {
+
+    // Shared by the GUI and the batch CLI so both convert exactly the same way
+    private static final List<Preset> BUILT_IN = List.of(
+
+            // --- DaVinci (LOCKED PARAMETERS) ---
+            new Preset(
+                    "DaVinci Resolve (Linux Free Compatible)",
+                    ".mov",
+                    List.of(
+                            "-vcodec", "mjpeg",
+                            "-q:v", "2",
+                            "-acodec", "pcm_s16be",
+                            "-q:a", "0",
+                            "-f", "mov"
+                    )
+            ),
+
+            // --- OBS Remux (Fast, No Re-Encode) ---
+            new Preset(
+                    "OBS Remux (Fast, No Re-Encode)",
+                    ".mp4",
+                    List.of(
+                            "-c", "copy"
+                    )
+            ),
+
+            // --- YouTube Export ---
+            new Preset(
+                    "YouTube H.264",
+                    ".mp4",
+                    List.of(
+                            "-c:v", "libx264",
+                            "-preset", "slow",
+                            "-crf", "18",
+                            "-c:a", "aac",
+                            "-b:a", "192k"
+                    )
+            ),
+
+            // --- TikTok Vertical (9:16 Auto Crop) ---
+            new Preset(
+                    "TikTok Vertical 9:16 (Auto Crop)",
+                    ".mp4",
+                    List.of(
+                            "-vf", "crop=w=in_h*9/16:h=in_h:x=(in_w-in_h*9/16)/2:y=0,scale=1080:1920",
+                            "-c:v", "libx264",
+                            "-preset", "medium",
+                            "-crf", "20",
+                            "-pix_fmt", "yuv420p",
+                            "-profile:v", "high",
+                            "-level", "4.1",
+                            "-c:a", "aac",
+                            "-b:a", "160k",
+                            "-movflags", "+faststart"
+                    )
+            )
+    );
+
+    private Presets() {
+        // Prevent instantiation
+    }
+
+    public static List<Preset> builtIn() {
+        return BUILT_IN;
+    }
+
+    // One output per preset for the same input; presets that share an
+    // extension get their name in the file name so they don't collide
+    public static List<File> outputsFor(List<Preset> presets, File input, File outputDir) {
+
+        Map<String, Integer> perExtension = new HashMap<>();
+        for (Preset preset : presets) {
+            perExtension.merge(preset.getOutputExtension().toLowerCase(Locale.ROOT), 1, Integer::sum);
+        }
+
+        List<File> outputs = new ArrayList<>();
+        for (Preset preset : presets) {
+            outputs.add(perExtension.get(preset.getOutputExtension().toLowerCase(Locale.ROOT)) > 1
+                    ? preset.taggedOutputFor(input, outputDir)
+                    : preset.outputFor(input, outputDir));
+        }
+        return outputs;
+    }
+
+    // Exact name match first, then a case-insensitive prefix so the CLI can say --preset youtube
+    public static Preset find(String name) {
+        if (name == null) return null;
+
+        for (Preset preset : BUILT_IN) {
+            if (preset.getName().equals(name)) {
+                return preset;
+            }
+        }
+
+        String wanted = name.trim().toLowerCase();
+        Preset match = null;
+
+        for (Preset preset : BUILT_IN) {
+            if (preset.getName().toLowerCase().startsWith(wanted)) {
+                if (match != null) return null;   // ambiguous
+                match = preset;
+            }
+        }
+
+        return match;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// How hard a job's ffmpeg may lean on the machine. Java can't change a
+// process's priority, so the command is started through nice, ionice and
+// taskset, which set it and then exec ffmpeg in place (same pid, so
+// cancelling and the usage sampling are unaffected). Tools that aren't
+// installed are left out: on macOS only nice applies, on Windows nothing does.
+public enum ProcessPriority {
+
+    // Someone is waiting for it: first in line for the disk. Raising CPU
+    // priority above other programs would need root, so that stays as is.
+    INTERACTIVE("Interactive", 0, "2", "0"),
+
+    // As ffmpeg would run from a terminal
+    NORMAL("Normal", 0, null, null),
+
+    // Only idle CPU and idle disk time: a batch can run all day next to an
+    // editor without stealing its frames
+    BACKGROUND("Background", 19, "3", null);
+
+    private static final Map<String, Boolean> TOOLS = new ConcurrentHashMap<>();
+
+    private final String label;
+    private final int niceness;
+    private final String ioClass;
+    private final String ioLevel;
+
+    ProcessPriority(String label, int niceness, String ioClass, String ioLevel) {
+        this.label = label;
+        this.niceness = niceness;
+        this.ioClass = ioClass;
+        this.ioLevel = ioLevel;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    // "background", "Background", ... -> BACKGROUND
+    public static ProcessPriority parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown priority: " + name + " (interactive, normal or background)");
+        }
+    }
+
+    // A taskset CPU list such as "0-3" or "0,2,4-7"; throws if it isn't one
+    public static String checkCpuList(String cpus) {
+        if (!cpus.matches("\\d+(-\\d+)?(,\\d+(-\\d+)?)*")) {
+            throw new IllegalArgumentException("Invalid CPU list: " + cpus + " (for example 0-3 or 0,2,4-7)");
+        }
+        return cpus;
+    }
+
+    // Number of CPUs in the list, or 0 for null (no restriction)
+    public static int cpuCount(String cpus) {
+        if (cpus == null) return 0;
+        int count = 0;
+        for (String range : cpus.split(",")) {
+            String[] ends = range.split("-");
+            int first = Integer.parseInt(ends[0]);
+            int last = ends.length > 1 ? Integer.parseInt(ends[1]) : first;
+            count += Math.max(0, last - first + 1);
+        }
+        return count;
+    }
+
+    // The command prefixed with whatever sets this priority and the CPU list (null for all CPUs)
+    public List<String> wrap(List<String> command, String cpus) {
+
+        List<String> wrapped = new ArrayList<>();
+        if (niceness != 0 && hasTool("nice")) {
+            wrapped.add("nice");
+            wrapped.add("-n");
+            wrapped.add(String.valueOf(niceness));
+        }
+        if (ioClass != null && hasTool("ionice")) {
+            wrapped.add("ionice");
+            wrapped.add("-c");
+            wrapped.add(ioClass);
+            if (ioLevel != null) {
+                wrapped.add("-n");
+                wrapped.add(ioLevel);
+            }
+        }
+        if (cpus != null && hasTool("taskset")) {
+            wrapped.add("taskset");
+            wrapped.add("-c");
+            wrapped.add(cpus);
+        }
+
+        if (wrapped.isEmpty()) return command;
+        wrapped.addAll(command);
+        return wrapped;
+    }
+
+    private static boolean hasTool(String name) {
+        return TOOLS.computeIfAbsent(name, n -> {
+            if (System.getProperty("os.name", "").toLowerCase(Locale.ROOT).contains("win")) return false;
+            String path = System.getenv("PATH");
+            if (path == null) return false;
+            for (String dir : path.split(File.pathSeparator)) {
+                if (new File(dir, n).canExecute()) return true;
+            }
+            return false;
+        });
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// CPU time and peak memory of every ffmpeg/ffprobe process one job starts.
+// Read from /proc/<pid>/stat and /proc/<pid>/status while each process runs,
+// because both are gone (or zeroed) by the time Java has reaped it. Where
+// there is no /proc, ProcessHandle still gives the combined CPU time.
+public class ProcessUsage {
+
+    private static final long SAMPLE_MILLIS = 500;
+
+    // USER_HZ; 100 on every Linux architecture ffmpeg runs on
+    private static final double TICKS_PER_SECOND = 100;
+
+    private static final ScheduledExecutorService SAMPLER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "leonardo-usage");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Latest reading per process; CPU times only grow, so the last one counts
+    private final Map<Long, double[]> cpu = new HashMap<>();
+    private long peakRssBytes;
+    private boolean procAvailable = true;
+
+    // Samples the process until it exits
+    public void track(Process process) {
+
+        long pid = process.pid();
+        ScheduledFuture<?> task = SAMPLER.scheduleAtFixedRate(
+                () -> sample(process.toHandle()), 0, SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+
+        process.onExit().thenRun(() -> {
+            task.cancel(false);
+            // A zombie still has its CPU times; only the memory is gone
+            SAMPLER.execute(() -> sample(pid));
+        });
+    }
+
+    // User CPU seconds over all processes, or -1 where only the total is known
+    public synchronized double getUserSeconds() {
+        if (!procAvailable) return -1;
+        double sum = 0;
+        for (double[] times : cpu.values()) sum += times[0];
+        return sum;
+    }
+
+    public synchronized double getSystemSeconds() {
+        if (!procAvailable) return -1;
+        double sum = 0;
+        for (double[] times : cpu.values()) sum += times[1];
+        return sum;
+    }
+
+    public synchronized double getCpuSeconds() {
+        double sum = 0;
+        for (double[] times : cpu.values()) sum += times[0] + times[1];
+        return sum;
+    }
+
+    // Largest resident set any single process reached; 0 if unknown
+    public synchronized long getPeakRssBytes() {
+        return peakRssBytes;
+    }
+
+    private void sample(ProcessHandle handle) {
+        if (!sample(handle.pid())) {
+            // No /proc (macOS, BSD): the total is all there is
+            handle.info().totalCpuDuration().ifPresent(d -> {
+                synchronized (this) {
+                    procAvailable = false;
+                    cpu.put(handle.pid(), new double[] { d.toMillis() / 1000.0, 0 });
+                }
+            });
+        }
+    }
+
+    private boolean sample(long pid) {
+        try {
+            // "pid (comm) state ..." - comm may contain spaces, so split after the ')'
+            String stat = Files.readString(Path.of("/proc", String.valueOf(pid), "stat"), StandardCharsets.US_ASCII);
+            String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+            double user = Long.parseLong(fields[11]) / TICKS_PER_SECOND;
+            double system = Long.parseLong(fields[12]) / TICKS_PER_SECOND;
+
+            long hwm = 0;
+            try {
+                for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"))) {
+                    if (line.startsWith("VmHWM:")) {
+                        hwm = Long.parseLong(line.replaceAll("\\D+", "")) * 1024;
+                    }
+                }
+            } catch (IOException e) {
+                // Exited between the two reads
+            }
+
+            synchronized (this) {
+                double[] previous = cpu.get(pid);
+                if (previous == null || user + system >= previous[0] + previous[1]) {
+                    cpu.put(pid, new double[] { user, system });
+                }
+                peakRssBytes = Math.max(peakRssBytes, hwm);
+            }
+            return true;
+
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+}
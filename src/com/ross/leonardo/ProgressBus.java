@@ -0,0 +1,162 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Samples the scheduler's running jobs at a fixed rate and hands one Sample
+// per tick to its subscribers. ffmpeg reports progress several times a second
+// per job; with a dozen jobs that is far more updates than anyone can see, so
+// the UI and the CLI read from here instead of from every progress line.
+// Subscribers are called on the bus thread and know nothing about Swing.
+public class ProgressBus {
+
+    // What the window repaints at; the eye doesn't need more
+    public static final long UI_PERIOD_MILLIS = 100;
+
+    public interface Subscriber {
+        void progressSampled(Sample sample);
+    }
+
+    // All active jobs at one instant, plus their combined throughput
+    public static final class Sample {
+
+        private final List<ConversionJob> jobs;
+        private final int workers;
+        private final int running;
+        private final double speed;
+        private final double fps;
+        private final long bytesWritten;
+
+        private Sample(List<ConversionJob> jobs, int workers, int running, double speed, double fps,
+                       long bytesWritten) {
+            this.jobs = jobs;
+            this.workers = workers;
+            this.running = running;
+            this.speed = speed;
+            this.fps = fps;
+            this.bytesWritten = bytesWritten;
+        }
+
+        // Queued and running jobs; finished ones have already dropped out
+        public List<ConversionJob> getJobs() {
+            return jobs;
+        }
+
+        // How many jobs the scheduler runs side by side
+        public int getWorkerCount() {
+            return workers;
+        }
+
+        public int getRunningCount() {
+            return running;
+        }
+
+        // Media seconds encoded per wall-clock second, summed over running jobs
+        public double getSpeed() {
+            return speed;
+        }
+
+        public double getFps() {
+            return fps;
+        }
+
+        public long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        // "3 running  6.20x  184 fps", or "" when nothing is encoding
+        public String summary() {
+            if (running == 0) return "";
+            StringBuilder sb = new StringBuilder();
+            sb.append(running).append(" running");
+            if (speed > 0) sb.append(String.format(Locale.ROOT, "  %.2fx", speed));
+            if (fps > 0) sb.append(String.format(Locale.ROOT, "  %.0f fps", fps));
+            return sb.toString();
+        }
+    }
+
+    private final JobScheduler scheduler;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService timer;
+
+    // Event each job had at the last tick; a tick where nothing moved is skipped
+    private final Map<ConversionJob, ProgressEvent> lastSeen = new HashMap<>();
+
+    public ProgressBus(JobScheduler scheduler, long periodMillis) {
+        this.scheduler = scheduler;
+
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "leonardo-progress");
+            t.setDaemon(true);
+            return t;
+        });
+        timer.scheduleAtFixedRate(this::tick, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void subscribe(Subscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    public void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    public void shutdown() {
+        timer.shutdown();
+    }
+
+    private void tick() {
+
+        List<ConversionJob> jobs = new ArrayList<>(scheduler.getActiveJobs());
+
+        boolean changed = jobs.size() != lastSeen.size();
+        Map<ConversionJob, ProgressEvent> seen = new HashMap<>();
+        int running = 0;
+        double speed = 0;
+        double fps = 0;
+        long bytes = 0;
+
+        for (ConversionJob job : jobs) {
+            ProgressEvent event = job.getLastEvent();
+            seen.put(job, event);
+            if (!lastSeen.containsKey(job) || lastSeen.get(job) != event) changed = true;
+
+            if (job.getState() != ConversionJob.State.RUNNING) continue;
+            running++;
+            if (event != null) {
+                if (event.getSpeed() > 0) speed += event.getSpeed();
+                if (event.getFps() > 0) fps += event.getFps();
+                if (event.getTotalSizeBytes() > 0) bytes += event.getTotalSizeBytes();
+            }
+        }
+
+        lastSeen.clear();
+        lastSeen.putAll(seen);
+        if (!changed) return;
+
+        Sample sample = new Sample(List.copyOf(jobs), scheduler.getWorkerCount(), running, speed, fps, bytes);
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.progressSampled(sample);
+            } catch (RuntimeException e) {
+                // One broken subscriber must not stop the others, or the bus
+                e.printStackTrace();
+            }
+        }
+    }
+}
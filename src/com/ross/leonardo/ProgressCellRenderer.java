@@ -0,0 +1,35 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.awt.Component;
+
+import javax.swing.JProgressBar;
+import javax.swing.JTable;
+import javax.swing.table.TableCellRenderer;
+
+// Draws an Integer 0-100 table cell as a progress bar; -1 means no known end
+public class ProgressCellRenderer extends JProgressBar implements TableCellRenderer {
+
+    public ProgressCellRenderer() {
+        super(0, 100);
+        setStringPainted(true);
+        setBorderPainted(false);
+    }
+
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value,
+                                                   boolean isSelected, boolean hasFocus,
+                                                   int row, int column) {
+        int percent = value instanceof Integer ? (Integer) value : 0;
+        setValue(Math.max(0, percent));
+        setString(percent < 0 ? "Live" : null);
+        return this;
+    }
+}
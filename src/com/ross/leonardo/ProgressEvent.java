@@ -0,0 +1,130 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.util.Locale;
+
+// One snapshot of ffmpeg's -progress output. Unknown values are negative.
+public final class ProgressEvent {
+
+    private final double outTimeSeconds;
+    private final double durationSeconds;
+    private final long frame;
+    private final double fps;
+    private final double speed;
+    private final double bitrateKbps;
+    private final long totalSizeBytes;
+    private final boolean finished;
+
+    public ProgressEvent(double outTimeSeconds,
+                         double durationSeconds,
+                         long frame,
+                         double fps,
+                         double speed,
+                         double bitrateKbps,
+                         long totalSizeBytes,
+                         boolean finished) {
+
+        this.outTimeSeconds = outTimeSeconds;
+        this.durationSeconds = durationSeconds;
+        this.frame = frame;
+        this.fps = fps;
+        this.speed = speed;
+        this.bitrateKbps = bitrateKbps;
+        this.totalSizeBytes = totalSizeBytes;
+        this.finished = finished;
+    }
+
+    // How far into the input ffmpeg has written output, in seconds
+    public double getOutTimeSeconds() {
+        return outTimeSeconds;
+    }
+
+    // Total input duration, or <= 0 if it isn't known
+    public double getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public long getFrame() {
+        return frame;
+    }
+
+    public double getFps() {
+        return fps;
+    }
+
+    // Media seconds encoded per wall-clock second (ffmpeg's "speed=1.5x")
+    public double getSpeed() {
+        return speed;
+    }
+
+    public double getBitrateKbps() {
+        return bitrateKbps;
+    }
+
+    public long getTotalSizeBytes() {
+        return totalSizeBytes;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    // 0-100, or -1 when the duration is unknown
+    public int getPercent() {
+        if (finished) return 100;
+        if (durationSeconds <= 0 || outTimeSeconds < 0) return -1;
+        return (int) Math.max(0, Math.min(100, outTimeSeconds / durationSeconds * 100));
+    }
+
+    // Wall-clock seconds left at the current speed, or -1 when it can't be estimated
+    public double getEtaSeconds() {
+        if (finished) return 0;
+        if (durationSeconds <= 0 || outTimeSeconds < 0 || speed <= 0) return -1;
+        return Math.max(0, durationSeconds - outTimeSeconds) / speed;
+    }
+
+    // "1:02:03" / "4:05"
+    public static String formatDuration(double seconds) {
+        if (seconds < 0) return "--:--";
+        long total = Math.round(seconds);
+        long h = total / 3600;
+        long m = (total % 3600) / 60;
+        long s = total % 60;
+        return h > 0
+                ? String.format(Locale.ROOT, "%d:%02d:%02d", h, m, s)
+                : String.format(Locale.ROOT, "%d:%02d", m, s);
+    }
+
+    // Short human summary for status columns and log lines: "2.10x  ETA 3:12" / "1.00x  at 12:40"
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        if (speed > 0) {
+            sb.append(String.format(Locale.ROOT, "%.2fx", speed));
+        }
+        double eta = getEtaSeconds();
+        if (eta >= 0 && !finished) {
+            if (sb.length() > 0) sb.append("  ");
+            sb.append("ETA ").append(formatDuration(eta));
+        } else if (durationSeconds <= 0 && outTimeSeconds >= 0 && !finished) {
+            // Open-ended (a recording followed live): how far it has got instead
+            if (sb.length() > 0) sb.append("  ");
+            sb.append("at ").append(formatDuration(outTimeSeconds));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "out_time=%.3f duration=%.3f frame=%d fps=%.2f speed=%.3f bitrate=%.1fkbit/s total_size=%d%s",
+                outTimeSeconds, durationSeconds, frame, fps, speed, bitrateKbps, totalSizeBytes,
+                finished ? " end" : "");
+    }
+}
@@ -0,0 +1,15 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+public interface ProgressListener {
+
+    // Called on the thread reading ffmpeg's output; keep it quick
+    void progressChanged(ProgressEvent event);
+}
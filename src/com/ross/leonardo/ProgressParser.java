@@ -0,0 +1,239 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+// Turns the key=value lines of "ffmpeg -progress pipe:1" into ProgressEvents.
+// ffmpeg writes one block per update, terminated by "progress=continue|end".
+//
+// Works on raw bytes in one reused buffer: no String, no split, no boxing per
+// line, so a machine running many jobs doesn't churn garbage on the monitoring
+// threads. The only allocation is the ProgressEvent at the end of each block.
+public class ProgressParser {
+
+    private static final byte[] FRAME = ascii("frame");
+    private static final byte[] FPS = ascii("fps");
+    private static final byte[] BITRATE = ascii("bitrate");
+    private static final byte[] TOTAL_SIZE = ascii("total_size");
+    private static final byte[] OUT_TIME_US = ascii("out_time_us");
+    private static final byte[] OUT_TIME_MS = ascii("out_time_ms");   // also microseconds, despite the name
+    private static final byte[] OUT_TIME = ascii("out_time");
+    private static final byte[] SPEED = ascii("speed");
+    private static final byte[] PROGRESS = ascii("progress");
+    private static final byte[] END = ascii("end");
+
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9,
+            1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18
+    };
+
+    private final double durationSeconds;
+    private final byte[] buffer;
+
+    private double outTime = -1;
+    private boolean outTimeFromMicros;
+    private long frame = -1;
+    private double fps = -1;
+    private double speed = -1;
+    private double bitrateKbps = -1;
+    private long totalSize = -1;
+
+    // Set by the number parsers: index just past the last digit consumed
+    private int scanEnd;
+
+    public ProgressParser(double durationSeconds) {
+        this(durationSeconds, 4096);
+    }
+
+    public ProgressParser(double durationSeconds, int bufferSize) {
+        this.durationSeconds = durationSeconds;
+        this.buffer = new byte[bufferSize];
+    }
+
+    // Reads the stream to EOF, calling the listener once per progress block
+    public void parse(InputStream in, ProgressListener listener) throws IOException {
+
+        int filled = 0;
+        boolean discarding = false;   // inside a line longer than the buffer
+
+        while (true) {
+            int n = in.read(buffer, filled, buffer.length - filled);
+            if (n < 0) break;
+            filled += n;
+
+            int lineStart = 0;
+
+            for (int i = 0; i < filled; i++) {
+                if (buffer[i] != '\n') continue;
+
+                if (!discarding) {
+                    ProgressEvent event = accept(buffer, lineStart, i);
+                    if (event != null && listener != null) {
+                        listener.progressChanged(event);
+                    }
+                }
+                discarding = false;
+                lineStart = i + 1;
+            }
+
+            if (lineStart == 0 && filled == buffer.length) {
+                // No newline in a full buffer; nothing ffmpeg sends is that long
+                discarding = true;
+                filled = 0;
+            } else if (lineStart > 0) {
+                System.arraycopy(buffer, lineStart, buffer, 0, filled - lineStart);
+                filled -= lineStart;
+            }
+        }
+
+        if (filled > 0 && !discarding) {
+            ProgressEvent event = accept(buffer, 0, filled);
+            if (event != null && listener != null) {
+                listener.progressChanged(event);
+            }
+        }
+    }
+
+    // One line, as a String (for callers that already have lines)
+    public ProgressEvent accept(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+        return accept(bytes, 0, bytes.length);
+    }
+
+    // One line in bytes [start, end), without the newline. Returns an event at
+    // the end of each block, null for every other line.
+    public ProgressEvent accept(byte[] b, int start, int end) {
+
+        if (end > start && b[end - 1] == '\r') end--;
+
+        int eq = -1;
+        for (int i = start; i < end; i++) {
+            if (b[i] == '=') {
+                eq = i;
+                break;
+            }
+        }
+        if (eq <= start) return null;
+
+        int keyEnd = eq;
+        int value = skipSpaces(b, eq + 1, end);
+
+        if (keyIs(b, start, keyEnd, OUT_TIME_US) || keyIs(b, start, keyEnd, OUT_TIME_MS)) {
+            long micros = parseLong(b, value, end);
+            if (micros >= 0) {
+                outTime = micros / 1_000_000.0;
+                outTimeFromMicros = true;
+            }
+        } else if (keyIs(b, start, keyEnd, OUT_TIME)) {
+            if (!outTimeFromMicros) {
+                double seconds = parseTimestamp(b, value, end);
+                if (seconds >= 0) outTime = seconds;
+            }
+        } else if (keyIs(b, start, keyEnd, FRAME)) {
+            frame = parseLong(b, value, end);
+        } else if (keyIs(b, start, keyEnd, FPS)) {
+            fps = parseDecimal(b, value, end);
+        } else if (keyIs(b, start, keyEnd, BITRATE)) {
+            bitrateKbps = parseDecimal(b, value, end);      // "1234.5kbits/s"
+        } else if (keyIs(b, start, keyEnd, TOTAL_SIZE)) {
+            totalSize = parseLong(b, value, end);
+        } else if (keyIs(b, start, keyEnd, SPEED)) {
+            speed = parseDecimal(b, value, end);            // "2.5x"
+        } else if (keyIs(b, start, keyEnd, PROGRESS)) {
+            boolean finished = keyIs(b, value, trimEnd(b, value, end), END);
+            outTimeFromMicros = false;
+            return new ProgressEvent(outTime, durationSeconds, frame, fps,
+                    speed, bitrateKbps, totalSize, finished);
+        }
+
+        return null;
+    }
+
+    private static boolean keyIs(byte[] b, int start, int end, byte[] key) {
+        if (end - start != key.length) return false;
+        for (int i = 0; i < key.length; i++) {
+            if (b[start + i] != key[i]) return false;
+        }
+        return true;
+    }
+
+    // Leading unsigned integer; -1 for "N/A" or no digits
+    private long parseLong(byte[] b, int start, int end) {
+        long value = 0;
+        int i = start;
+        while (i < end && b[i] >= '0' && b[i] <= '9') {
+            value = value * 10 + (b[i] - '0');
+            i++;
+        }
+        scanEnd = i;
+        return i == start ? -1 : value;
+    }
+
+    // Leading unsigned decimal ("29.97", "2.5x", "1234.5kbits/s"); -1 if there is none
+    private double parseDecimal(byte[] b, int start, int end) {
+        long whole = parseLong(b, start, end);
+        if (whole < 0) return -1;
+
+        int i = scanEnd;
+        if (i < end && b[i] == '.') {
+            i++;
+            long fraction = 0;
+            int digits = 0;
+            while (i < end && b[i] >= '0' && b[i] <= '9') {
+                if (digits < POW10.length - 1) {
+                    fraction = fraction * 10 + (b[i] - '0');
+                    digits++;
+                }
+                i++;
+            }
+            scanEnd = i;
+            return whole + fraction / POW10[digits];
+        }
+
+        return whole;
+    }
+
+    // "HH:MM:SS.ffffff" with any number of hour digits; -1 for "N/A" or a negative time
+    private double parseTimestamp(byte[] b, int start, int end) {
+        if (start < end && b[start] == '-') return -1;
+
+        double seconds = 0;
+        int i = start;
+
+        while (true) {
+            double part = parseDecimal(b, i, end);
+            if (part < 0) return -1;
+            seconds = seconds * 60 + part;
+
+            i = scanEnd;
+            if (i < end && b[i] == ':') {
+                i++;
+            } else {
+                return seconds;
+            }
+        }
+    }
+
+    private static int skipSpaces(byte[] b, int i, int end) {
+        while (i < end && b[i] == ' ') i++;
+        return i;
+    }
+
+    private static int trimEnd(byte[] b, int start, int end) {
+        while (end > start && b[end - 1] == ' ') end--;
+        return end;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,467 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Checkpointed encoding for long inputs: the video is encoded in keyframe-
+// aligned pieces of about SEGMENT_SECONDS (audio in one more piece) and each
+// finished piece is appended to a journal under ~/.leonardo/resume. A cancel,
+// crash or reboot only loses the pieces that were in flight; the next run of
+// the same input/preset/output skips everything the journal lists and then
+// stitches the pieces together with the concat demuxer.
+//
+// The pieces live next to the output (they can be as big as the output
+// itself), in a ".<output>-resume" folder that is deleted once the output exists.
+public class ResumableEncoder {
+
+    public static final double SEGMENT_SECONDS = 300;
+
+    private static final String MAGIC = "leonardo-resume 1";
+    private static final File JOURNAL_DIR = AppPaths.resolve("resume");
+
+    // What an unfinished journal says about its job, for offering to resume after a restart
+    public static final class Pending {
+
+        private final File input;
+        private final File output;
+        private final Preset preset;
+        private final SpeedTarget speedTarget;
+        private final double doneSeconds;
+        private final double durationSeconds;
+
+        Pending(File input, File output, Preset preset, SpeedTarget speedTarget,
+                double doneSeconds, double durationSeconds) {
+            this.input = input;
+            this.output = output;
+            this.preset = preset;
+            this.speedTarget = speedTarget;
+            this.doneSeconds = doneSeconds;
+            this.durationSeconds = durationSeconds;
+        }
+
+        public File getInput() {
+            return input;
+        }
+
+        public File getOutput() {
+            return output;
+        }
+
+        // As requested, before a speed target picked its tier
+        public Preset getPreset() {
+            return preset;
+        }
+
+        // null if the job had none
+        public SpeedTarget getSpeedTarget() {
+            return speedTarget;
+        }
+
+        public int getPercent() {
+            return durationSeconds > 0 ? (int) (doneSeconds * 100 / durationSeconds) : 0;
+        }
+    }
+
+    private final FFmpegRunner runner = new FFmpegRunner();
+    private final String input;
+    private final String output;
+    private Preset preset;
+    private Preset untuned;
+    private SpeedTarget speedTarget;
+    private final int parallel;
+    private final MediaInfo info;
+    private final double duration;
+    private final ProgressListener listener;
+
+    // This run's pieces; the ones finished in earlier runs are journaledSeconds long
+    private final Map<Integer, ProgressEvent> pieces = new HashMap<>();
+    private double journaledSeconds;
+
+    // parallel > 1 encodes that many pieces at once (the --split setting)
+    public ResumableEncoder(String input,
+                            String output,
+                            Preset preset,
+                            int parallel,
+                            MediaInfo info,
+                            ProgressListener listener) {
+
+        this.input = input;
+        this.output = output;
+        this.preset = preset;
+        this.untuned = preset;
+        this.parallel = Math.max(1, parallel);
+        this.info = info;
+        this.duration = info.getDurationSeconds();
+        this.listener = listener;
+    }
+
+    // Only long video re-encodes are worth checkpointing
+    public static boolean canResume(Preset preset, double duration) {
+        if (preset == null || duration < 2 * SEGMENT_SECONDS) return false;
+        String videoCodec = PresetArgs.videoCodec(preset.getFfmpegArgs());
+        return videoCodec != null && !videoCodec.equals("copy");
+    }
+
+    // Counts this encoder's processes in the job's usage
+    void setUsage(ProcessUsage usage) {
+        runner.setUsage(usage);
+    }
+
+    void setPriority(ProcessPriority priority, String cpus) {
+        runner.setPriority(priority, cpus);
+    }
+
+    // The journal is keyed on the preset before the target picked its tier,
+    // so a rerun finds it whatever tier the history suggests by then
+    void setSpeedTarget(Preset untuned, SpeedTarget speedTarget) {
+        this.untuned = untuned;
+        this.speedTarget = speedTarget;
+    }
+
+    // The preset the pieces are encoded with: a resumed journal's, not the one passed in
+    public Preset getPreset() {
+        return preset;
+    }
+
+    public void cancel() {
+        runner.cancel();
+    }
+
+    public boolean isCancelled() {
+        return runner.isCancelled();
+    }
+
+    public void encode() throws IOException, InterruptedException {
+
+        File inputFile = new File(input).getAbsoluteFile();
+        File outputFile = new File(output).getAbsoluteFile();
+        File journalFile = journalFile(inputFile, outputFile, untuned, speedTarget);
+
+        discardStale(outputFile, journalFile);
+
+        Journal journal = Journal.read(journalFile);
+        if (journal == null) {
+            List<Double> cuts = SegmentedEncoder.keyframeCuts(runner, input, duration, info.getStartTime(),
+                    (int) Math.ceil(duration / SEGMENT_SECONDS), SEGMENT_SECONDS / 2);
+            Path workDir = outputFile.getParentFile().toPath().resolve("." + outputFile.getName() + "-resume");
+            String tier = !preset.getFfmpegArgs().equals(untuned.getFfmpegArgs()) ? SpeedTiers.tierOf(preset) : null;
+            journal = Journal.create(journalFile, inputFile, outputFile, untuned, speedTarget, tier, workDir, cuts);
+        }
+
+        // The remaining pieces must match the finished ones
+        Preset preset = journal.runPreset();
+        this.preset = preset;
+
+        Path workDir = journal.workDir;
+        Files.createDirectories(workDir);
+
+        String extension = preset.getOutputExtension();
+        List<Double> cuts = journal.cuts;
+        int chunkCount = cuts.size() - 1;
+
+        List<Path> chunks = new ArrayList<>();
+        List<Integer> todo = new ArrayList<>();
+
+        for (int i = 0; i < chunkCount; i++) {
+            Path chunk = workDir.resolve(String.format("chunk_%03d%s", i, extension));
+            chunks.add(chunk);
+            if (journal.isDone(chunk)) {
+                journaledSeconds += cuts.get(i + 1) - cuts.get(i);
+            } else {
+                todo.add(i);
+            }
+        }
+
+        Path audio = info.hasAudio() ? workDir.resolve("audio" + extension) : null;
+        boolean audioTodo = audio != null && !journal.isDone(audio);
+
+        reportProgress();
+
+        int workers = Math.min(parallel, Math.max(1, todo.size()));
+        ThreadBudget.Lease lease = ThreadBudget.get().acquire(workers, runner.getCpuCount());
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers + (audioTodo ? 1 : 0), r -> {
+            Thread t = new Thread(r, "leonardo-resume");
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            Journal j = journal;
+
+            if (audioTodo) {
+                tasks.add(pool.submit(() -> {
+                    runner.run(SegmentedEncoder.audioCommand(input, preset, audio), duration, null);
+                    if (!runner.isCancelled()) j.markDone(audio);
+                    return null;
+                }));
+            }
+
+            for (int i : todo) {
+                double start = cuts.get(i);
+                double end = cuts.get(i + 1);
+                boolean last = i == chunkCount - 1;
+                Path chunk = chunks.get(i);
+
+                tasks.add(pool.submit(() -> {
+                    List<String> command = SegmentedEncoder.chunkCommand(input, preset, start,
+                            last ? -1 : end - start, chunk);
+                    ThreadBudget.apply(command, lease.getThreads());
+                    runner.run(command, end - start, event -> pieceAdvanced(i, event));
+                    if (!runner.isCancelled()) j.markDone(chunk);
+                    return null;
+                }));
+            }
+
+            SegmentedEncoder.awaitAll(runner, tasks);
+            if (runner.isCancelled()) return;   // journal and pieces stay for the next run
+
+            runner.run(SegmentedEncoder.concatCommand(preset,
+                    SegmentedEncoder.writeChunkList(workDir, chunks), audio, output), duration, null);
+            if (runner.isCancelled()) return;
+
+            journalFile.delete();
+            SegmentedEncoder.deleteRecursively(workDir);
+
+            if (listener != null) {
+                listener.progressChanged(new ProgressEvent(duration, duration, -1, -1, -1, -1,
+                        outputFile.length(), true));
+            }
+
+        } finally {
+            lease.close();
+            pool.shutdownNow();
+        }
+    }
+
+    // Unfinished conversions left behind by a cancel, crash or reboot
+    public static List<Pending> pending() {
+
+        List<Pending> result = new ArrayList<>();
+        File[] files = JOURNAL_DIR.listFiles((dir, name) -> name.endsWith(".journal"));
+        if (files == null) return result;
+
+        for (File file : files) {
+            Journal journal = Journal.read(file);
+            if (journal == null || !journal.input.isFile()) continue;
+
+            double done = 0;
+            for (int i = 0; i + 1 < journal.cuts.size(); i++) {
+                Path chunk = journal.workDir.resolve(String.format("chunk_%03d%s", i, journal.preset.getOutputExtension()));
+                if (journal.isDone(chunk)) {
+                    done += journal.cuts.get(i + 1) - journal.cuts.get(i);
+                }
+            }
+            double total = journal.cuts.isEmpty() ? 0 : journal.cuts.get(journal.cuts.size() - 1);
+            result.add(new Pending(journal.input, journal.output, journal.preset, journal.target, done, total));
+        }
+
+        return result;
+    }
+
+    // Throws the journal and its pieces away, e.g. when the user declines to resume
+    public static void discard(File input, File output, Preset preset, SpeedTarget speedTarget) {
+        File journalFile = journalFile(input.getAbsoluteFile(), output.getAbsoluteFile(), preset, speedTarget);
+        Journal journal = Journal.read(journalFile);
+        if (journal != null) {
+            SegmentedEncoder.deleteRecursively(journal.workDir);
+        }
+        journalFile.delete();
+    }
+
+    // The preset a journal for this job encodes with, or null if there is none.
+    // A job with a speed target resumes at the tier its pieces were started at.
+    public static Preset journaled(File input, File output, Preset untuned, SpeedTarget speedTarget) {
+        Journal journal = Journal.read(
+                journalFile(input.getAbsoluteFile(), output.getAbsoluteFile(), untuned, speedTarget));
+        return journal != null ? journal.runPreset() : null;
+    }
+
+    private static File journalFile(File input, File output, Preset untuned, SpeedTarget speedTarget) {
+        return new File(JOURNAL_DIR, journalKey(input, output, SpeedTiers.keyOf(untuned, speedTarget)) + ".journal");
+    }
+
+    // An older journal for the same output (the input or preset changed since) is useless now
+    private static void discardStale(File output, File current) {
+        File[] files = JOURNAL_DIR.listFiles((dir, name) -> name.endsWith(".journal"));
+        if (files == null) return;
+
+        for (File file : files) {
+            if (file.equals(current)) continue;
+            Journal journal = Journal.read(file);
+            if (journal != null && journal.output.equals(output)) {
+                SegmentedEncoder.deleteRecursively(journal.workDir);
+                file.delete();
+            }
+        }
+    }
+
+    private synchronized void pieceAdvanced(int index, ProgressEvent event) {
+        pieces.put(index, event);
+        reportProgress();
+    }
+
+    // Journaled pieces count as done from the start, so a resumed job picks up at its old percentage
+    private synchronized void reportProgress() {
+        if (listener != null) {
+            listener.progressChanged(SegmentedEncoder.combine(pieces.values(), journaledSeconds, duration));
+        }
+    }
+
+    // Same input content (path, size, mtime), same arguments, same output
+    private static String journalKey(File input, File output, Preset preset) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(input.getPath()).append('|').append(input.length()).append('|').append(input.lastModified())
+                .append('|').append(output.getPath());
+        for (String arg : preset.getFfmpegArgs()) {
+            sb.append('|').append(arg);
+        }
+        return Digests.sha1(sb.toString());
+    }
+
+    // Append-only text file: a header describing the job, then one "done" line
+    // per finished piece, each synced to disk before the next piece can depend on it
+    private static final class Journal {
+
+        private final File file;
+        private final File input;
+        private final File output;
+        private final Preset preset;        // before a speed target picked the tier
+        private final SpeedTarget target;
+        private final String tier;          // the tier picked, or null
+        private final Path workDir;
+        private final List<Double> cuts;
+        private final Map<String, Long> done = new HashMap<>();
+
+        private Journal(File file, File input, File output, Preset preset, SpeedTarget target, String tier,
+                        Path workDir, List<Double> cuts) {
+            this.file = file;
+            this.input = input;
+            this.output = output;
+            this.preset = preset;
+            this.target = target;
+            this.tier = tier;
+            this.workDir = workDir;
+            this.cuts = cuts;
+        }
+
+        Preset runPreset() {
+            return tier != null ? SpeedTiers.withTier(preset, tier) : preset;
+        }
+
+        static Journal create(File file, File input, File output, Preset preset, SpeedTarget target, String tier,
+                              Path workDir, List<Double> cuts) throws IOException {
+
+            StringBuilder sb = new StringBuilder(MAGIC).append('\n');
+            sb.append("input\t").append(input.getPath()).append('\n');
+            sb.append("output\t").append(output.getPath()).append('\n');
+            sb.append("preset\t").append(preset.getName()).append('\n');
+            sb.append("extension\t").append(preset.getOutputExtension()).append('\n');
+            for (String arg : preset.getFfmpegArgs()) {
+                sb.append("arg\t").append(arg).append('\n');
+            }
+            if (target != null) sb.append("target\t").append(target).append('\n');
+            if (tier != null) sb.append("tier\t").append(tier).append('\n');
+            sb.append("workdir\t").append(workDir).append('\n');
+            for (double cut : cuts) {
+                sb.append("cut\t").append(SegmentedEncoder.formatSeconds(cut)).append('\n');
+            }
+
+            Files.createDirectories(file.getParentFile().toPath());
+            Journal journal = new Journal(file, input, output, preset, target, tier, workDir, cuts);
+            journal.append(sb.toString());
+            return journal;
+        }
+
+        // null if there is no journal or it can't be trusted
+        static Journal read(File file) {
+
+            if (!file.isFile()) return null;
+
+            try {
+                List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+                if (lines.isEmpty() || !lines.get(0).equals(MAGIC)) return null;
+
+                String input = null, output = null, name = null, extension = null, workDir = null;
+                String target = null, tier = null;
+                List<String> args = new ArrayList<>();
+                List<Double> cuts = new ArrayList<>();
+                Map<String, Long> done = new HashMap<>();
+
+                for (String line : lines.subList(1, lines.size())) {
+                    String[] parts = line.split("\t", 3);
+                    if (parts.length < 2) continue;   // torn last line after a crash
+
+                    switch (parts[0]) {
+                        case "input":     input = parts[1]; break;
+                        case "output":    output = parts[1]; break;
+                        case "preset":    name = parts[1]; break;
+                        case "extension": extension = parts[1]; break;
+                        case "arg":       args.add(parts[1]); break;
+                        case "target":    target = parts[1]; break;
+                        case "tier":      tier = parts[1]; break;
+                        case "workdir":   workDir = parts[1]; break;
+                        case "cut":       cuts.add(Double.parseDouble(parts[1])); break;
+                        case "done":
+                            if (parts.length == 3) done.put(parts[1], Long.parseLong(parts[2]));
+                            break;
+                        default:
+                            break;
+                    }
+                }
+
+                if (input == null || output == null || name == null || extension == null
+                        || workDir == null || cuts.size() < 2) return null;
+
+                Journal journal = new Journal(file, new File(input), new File(output),
+                        new Preset(name, extension, List.copyOf(args)),
+                        target != null ? SpeedTarget.parse(target) : null, tier, Path.of(workDir), cuts);
+                journal.done.putAll(done);
+                return journal;
+
+            } catch (IOException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        // Listed as done and still on disk at the size it had when it was finished
+        synchronized boolean isDone(Path piece) {
+            Long size = done.get(piece.getFileName().toString());
+            return size != null && Files.isRegularFile(piece) && piece.toFile().length() == size;
+        }
+
+        synchronized void markDone(Path piece) throws IOException {
+            String name = piece.getFileName().toString();
+            long size = piece.toFile().length();
+            append("done\t" + name + "\t" + size + "\n");
+            done.put(name, size);
+        }
+
+        private void append(String text) throws IOException {
+            try (FileOutputStream out = new FileOutputStream(file, true)) {
+                out.write(text.getBytes(StandardCharsets.UTF_8));
+                out.getFD().sync();
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// A fast folder (an NVMe drive, a RAM disk) that outputs are encoded into
+// before they go where they belong. ffmpeg's small scattered writes hit the
+// fast disk, the slow one gets one sequential copy, and the output only ever
+// appears at its real path complete: moved there in one rename.
+public class ScratchDir {
+
+    private final File dir;
+
+    public ScratchDir(File dir) {
+        this.dir = dir;
+    }
+
+    public File getDir() {
+        return dir;
+    }
+
+    // Where output is encoded. The name follows from the output path, so a
+    // rerun of the same job writes over its own leftovers and nobody else's.
+    public File fileFor(File output) throws IOException {
+        Files.createDirectories(dir.toPath());
+        return new File(dir, Digests.sha1(output.getAbsolutePath()).substring(0, 16) + "-" + output.getName());
+    }
+
+    // Moves a finished scratch file to output, replacing it in one step
+    public static void moveIntoPlace(File scratch, File output) throws IOException {
+
+        try {
+            Files.move(scratch.toPath(), output.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return;
+        } catch (AtomicMoveNotSupportedException e) {
+            // Another filesystem: copy next to the output first, then rename
+        }
+
+        Path part = output.toPath().resolveSibling("." + output.getName() + ".part");
+        try {
+            try (FileChannel in = FileChannel.open(scratch.toPath(), StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(part, StandardOpenOption.CREATE,
+                         StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                long size = in.size();
+                for (long position = 0; position < size; ) {
+                    position += in.transferTo(position, size - position, out);
+                }
+                out.force(true);
+            }
+            Files.move(part, output.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(scratch.toPath());
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+// Chunked encoding for long inputs: cut the video at keyframes into N pieces,
+// encode the pieces in parallel ffmpeg processes (audio in one more process,
+// so there are no AAC priming gaps at the joins), then stream-copy everything
+// back together with the concat demuxer.
+public class SegmentedEncoder {
+
+    // Shorter inputs aren't worth the split/concat overhead
+    public static final double MIN_DURATION_SECONDS = 300;
+    private static final double MIN_SEGMENT_SECONDS = 60;
+    private static final double KEYFRAME_SEARCH_SECONDS = 30;
+
+    private final FFmpegRunner runner = new FFmpegRunner();
+    private final String input;
+    private final String output;
+    private final Preset preset;
+    private final int segments;
+    private final MediaInfo info;
+    private final double duration;
+    private final ProgressListener listener;
+
+    private ProgressEvent[] segmentProgress;
+
+    public SegmentedEncoder(String input,
+                            String output,
+                            Preset preset,
+                            int segments,
+                            MediaInfo info,
+                            ProgressListener listener) {
+
+        this.input = input;
+        this.output = output;
+        this.preset = preset;
+        this.segments = segments;
+        this.info = info;
+        this.duration = info.getDurationSeconds();
+        this.listener = listener;
+    }
+
+    // libx264 and friends stop scaling well past a handful of threads, so one chunk per four cores
+    public static int defaultSegmentCount() {
+        return Math.max(2, Runtime.getRuntime().availableProcessors() / 4);
+    }
+
+    // Only presets that actually re-encode video gain anything from splitting
+    public static boolean canSegment(Preset preset, double duration) {
+        if (preset == null || duration < MIN_DURATION_SECONDS) return false;
+        String videoCodec = PresetArgs.videoCodec(preset.getFfmpegArgs());
+        return videoCodec != null && !videoCodec.equals("copy");
+    }
+
+    // Counts this encoder's processes in the job's usage
+    void setUsage(ProcessUsage usage) {
+        runner.setUsage(usage);
+    }
+
+    void setPriority(ProcessPriority priority, String cpus) {
+        runner.setPriority(priority, cpus);
+    }
+
+    public void cancel() {
+        runner.cancel();
+    }
+
+    public boolean isCancelled() {
+        return runner.isCancelled();
+    }
+
+    public void encode() throws IOException, InterruptedException {
+
+        List<Double> boundaries = keyframeCuts(runner, input, duration, info.getStartTime(),
+                segments, MIN_SEGMENT_SECONDS);
+        int chunkCount = boundaries.size() - 1;
+
+        segmentProgress = new ProgressEvent[chunkCount];
+
+        File outputFile = new File(output).getAbsoluteFile();
+        Path workDir = Files.createTempDirectory(outputFile.getParentFile().toPath(),
+                "." + outputFile.getName() + "-parts-");
+
+        ThreadBudget.Lease lease = ThreadBudget.get().acquire(chunkCount, runner.getCpuCount());
+
+        ExecutorService pool = Executors.newFixedThreadPool(chunkCount + 1, r -> {
+            Thread t = new Thread(r, "leonardo-segment");
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            String extension = preset.getOutputExtension();
+            List<Future<?>> tasks = new ArrayList<>();
+            List<Path> chunks = new ArrayList<>();
+
+            Path audio = info.hasAudio() ? workDir.resolve("audio" + extension) : null;
+            if (audio != null) {
+                tasks.add(pool.submit(() -> {
+                    runner.run(audioCommand(input, preset, audio), duration, null);
+                    return null;
+                }));
+            }
+
+            for (int i = 0; i < chunkCount; i++) {
+                int index = i;
+                double start = boundaries.get(i);
+                double end = boundaries.get(i + 1);
+                boolean last = i == chunkCount - 1;
+                Path chunk = workDir.resolve(String.format("chunk_%03d%s", i, extension));
+                chunks.add(chunk);
+
+                tasks.add(pool.submit(() -> {
+                    List<String> command = chunkCommand(input, preset, start, last ? -1 : end - start, chunk);
+                    ThreadBudget.apply(command, lease.getThreads());
+                    runner.run(command, end - start,
+                            event -> segmentAdvanced(index, event));
+                    return null;
+                }));
+            }
+
+            awaitAll(runner, tasks);
+            if (runner.isCancelled()) return;
+
+            runner.run(concatCommand(preset, writeChunkList(workDir, chunks), audio, output), duration, null);
+
+            if (!runner.isCancelled() && listener != null) {
+                listener.progressChanged(new ProgressEvent(duration, duration, -1, -1, -1, -1,
+                        new File(output).length(), true));
+            }
+
+        } finally {
+            lease.close();
+            pool.shutdownNow();
+            deleteRecursively(workDir);
+        }
+    }
+
+    // The first failing piece cancels its siblings and its error is the one reported
+    static void awaitAll(FFmpegRunner runner, List<Future<?>> tasks) throws IOException, InterruptedException {
+        try {
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (ExecutionException e) {
+            boolean wasCancelled = runner.isCancelled();
+            runner.cancel();
+            if (wasCancelled) return;
+
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    private synchronized void segmentAdvanced(int index, ProgressEvent event) {
+        segmentProgress[index] = event;
+        if (listener != null) {
+            listener.progressChanged(combine(Arrays.asList(segmentProgress), 0, duration));
+        }
+    }
+
+    // Folds the per-piece events into one event for the whole input: positions,
+    // frame rates, speeds and sizes add up since the pieces run side by side.
+    // doneBefore is media already encoded by an earlier run (see ResumableEncoder).
+    static ProgressEvent combine(Collection<ProgressEvent> pieces, double doneBefore, double duration) {
+
+        double done = 0;
+        long frames = 0;
+        double fps = 0;
+        double speed = 0;
+        long size = 0;
+
+        for (ProgressEvent e : pieces) {
+            if (e == null) continue;
+            done += Math.max(0, e.getOutTimeSeconds());
+            frames += Math.max(0, e.getFrame());
+            if (!e.isFinished()) {
+                fps += Math.max(0, e.getFps());
+                speed += Math.max(0, e.getSpeed());
+            }
+            size += Math.max(0, e.getTotalSizeBytes());
+        }
+
+        double bitrate = done > 0 ? size * 8 / 1000.0 / done : -1;
+
+        // Never report "finished" here: the concat step still has to write the final file
+        return new ProgressEvent(Math.min(doneBefore + done, duration * 0.999), duration,
+                frames, fps, speed > 0 ? speed : -1, bitrate, size, false);
+    }
+
+    // The concat demuxer's list file, with names relative to the work dir
+    static Path writeChunkList(Path workDir, List<Path> chunks) throws IOException {
+        Path list = workDir.resolve("chunks.txt");
+        StringBuilder sb = new StringBuilder();
+        for (Path chunk : chunks) {
+            sb.append("file '").append(chunk.getFileName().toString().replace("'", "'\\''")).append("'\n");
+        }
+        Files.write(list, sb.toString().getBytes(StandardCharsets.UTF_8));
+        return list;
+    }
+
+    // Video only, from start for length seconds (length < 0: to the end)
+    static List<String> chunkCommand(String input, Preset preset, double start, double length, Path chunk) {
+
+        List<String> command = new ArrayList<>();
+        command.add("ffmpeg");
+        command.add("-hide_banner");
+        command.add("-y");
+        command.add("-ss");
+        command.add(formatSeconds(start));
+        command.add("-i");
+        command.add(input);
+        if (length > 0) {
+            command.add("-t");
+            command.add(formatSeconds(length));
+        }
+        command.add("-map");
+        command.add("0:v:0");
+        command.add("-an");
+        command.add("-sn");
+        command.add("-dn");
+        command.addAll(PresetArgs.videoArgs(preset.getFfmpegArgs()));
+        command.addAll(PresetArgs.containerArgs(preset.getFfmpegArgs()));
+        command.add(chunk.toString());
+        return command;
+    }
+
+    static List<String> audioCommand(String input, Preset preset, Path audio) {
+
+        List<String> command = new ArrayList<>();
+        command.add("ffmpeg");
+        command.add("-hide_banner");
+        command.add("-y");
+        command.add("-i");
+        command.add(input);
+        command.add("-map");
+        command.add("0:a:0");
+        command.add("-vn");
+        command.add("-sn");
+        command.add("-dn");
+        command.addAll(PresetArgs.audioArgs(preset.getFfmpegArgs()));
+        command.addAll(PresetArgs.containerArgs(preset.getFfmpegArgs()));
+        command.add(audio.toString());
+        return command;
+    }
+
+    static List<String> concatCommand(Preset preset, Path list, Path audio, String output) {
+
+        List<String> command = new ArrayList<>();
+        command.add("ffmpeg");
+        command.add("-hide_banner");
+        command.add("-y");
+        command.add("-f");
+        command.add("concat");
+        command.add("-safe");
+        command.add("0");
+        command.add("-i");
+        command.add(list.toString());
+        if (audio != null) {
+            command.add("-i");
+            command.add(audio.toString());
+        }
+        command.add("-map");
+        command.add("0:v");
+        if (audio != null) {
+            command.add("-map");
+            command.add("1:a");
+        }
+        command.add("-c");
+        command.add("copy");
+        command.addAll(PresetArgs.containerArgs(preset.getFfmpegArgs()));
+        command.add(output);
+        return command;
+    }
+
+    // Evenly spaced cut points, each moved forward to the next video keyframe so
+    // every chunk starts on a keyframe and the input seek is exact. Includes 0
+    // and the duration, so there is one chunk less than there are cuts.
+    static List<Double> keyframeCuts(FFmpegRunner runner, String input, double duration, double startTime,
+                                     int segments, double minSegmentSeconds)
+            throws IOException, InterruptedException {
+
+        int count = (int) Math.max(1, Math.min(segments, duration / minSegmentSeconds));
+
+        List<Double> boundaries = new ArrayList<>();
+        boundaries.add(0.0);
+
+        for (int i = 1; i < count; i++) {
+            double target = duration * i / count;
+            double keyframe = nextKeyframe(runner, input, startTime + target);
+            if (keyframe < 0) continue;
+
+            double cut = keyframe - startTime;
+            if (cut - boundaries.get(boundaries.size() - 1) >= minSegmentSeconds
+                    && duration - cut >= minSegmentSeconds) {
+                boundaries.add(cut);
+            }
+        }
+
+        boundaries.add(duration);
+        return boundaries;
+    }
+
+    // Reads packet headers only (no decoding) in a short window after the target
+    private static double nextKeyframe(FFmpegRunner runner, String input, double target)
+            throws IOException, InterruptedException {
+
+        String csv = runner.capture(List.of(
+                "ffprobe", "-v", "error",
+                "-select_streams", "v:0",
+                "-read_intervals", formatSeconds(target) + "%+" + (int) KEYFRAME_SEARCH_SECONDS,
+                "-show_entries", "packet=pts_time,flags",
+                "-of", "csv=p=0",
+                input));
+
+        double best = -1;
+
+        for (String line : csv.split("\n")) {
+            String[] parts = line.trim().split(",");
+            if (parts.length < 2 || !parts[1].startsWith("K")) continue;
+
+            try {
+                double pts = Double.parseDouble(parts[0]);
+                if (pts >= target && (best < 0 || pts < best)) {
+                    best = pts;
+                }
+            } catch (NumberFormatException ignored) {
+                // pts_time=N/A
+            }
+        }
+
+        return best;
+    }
+
+    static String formatSeconds(double seconds) {
+        return String.format(Locale.ROOT, "%.6f", seconds);
+    }
+
+    static void deleteRecursively(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException ignored) { }
+    }
+}
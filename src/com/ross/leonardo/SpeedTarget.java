@@ -0,0 +1,90 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.util.Locale;
+
+// How fast a job has to be: done within a time limit ("15m") or at least a
+// given multiple of realtime ("2x"). SpeedTiers turns it into an x264/x265
+// -preset, counting from the moment the job starts encoding.
+public final class SpeedTarget {
+
+    private final double deadlineSeconds;   // 0 = no time limit
+    private final double minSpeed;          // 0 = no speed floor
+
+    private SpeedTarget(double deadlineSeconds, double minSpeed) {
+        this.deadlineSeconds = deadlineSeconds;
+        this.minSpeed = minSpeed;
+    }
+
+    public static SpeedTarget within(double seconds) {
+        if (!(seconds > 0)) throw new IllegalArgumentException("The time limit must be positive");
+        return new SpeedTarget(seconds, 0);
+    }
+
+    public static SpeedTarget atLeast(double speed) {
+        if (!(speed > 0)) throw new IllegalArgumentException("The speed must be positive");
+        return new SpeedTarget(0, speed);
+    }
+
+    // "15m", "90s", "1h", "1h30m" (a time limit) or "2x", "0.5x" (a multiple of realtime)
+    public static SpeedTarget parse(String text) {
+
+        String s = text.trim().toLowerCase(Locale.ROOT);
+        try {
+            if (s.endsWith("x")) {
+                return atLeast(Double.parseDouble(s.substring(0, s.length() - 1)));
+            }
+
+            double seconds = 0;
+            int start = 0;
+            for (int i = 0; i < s.length(); i++) {
+                char unit = s.charAt(i);
+                if (Character.isDigit(unit) || unit == '.') continue;
+                double value = Double.parseDouble(s.substring(start, i));
+                switch (unit) {
+                    case 'h': seconds += value * 3600; break;
+                    case 'm': seconds += value * 60; break;
+                    case 's': seconds += value; break;
+                    default: throw new NumberFormatException();
+                }
+                start = i + 1;
+            }
+            if (start != s.length()) throw new NumberFormatException();   // a number without a unit
+            return within(seconds);
+
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid speed target: " + text
+                    + " (a time limit such as 15m or 1h30m, or a speed such as 2x)");
+        }
+    }
+
+    // Wall-clock seconds a job with this much media may take; 0 when it can't be said
+    public double budgetSeconds(double mediaSeconds) {
+        double budget = deadlineSeconds;
+        if (minSpeed > 0 && mediaSeconds > 0) {
+            double bySpeed = mediaSeconds / minSpeed;
+            budget = budget > 0 ? Math.min(budget, bySpeed) : bySpeed;
+        }
+        return budget;
+    }
+
+    @Override
+    public String toString() {
+        if (minSpeed > 0) return trim(minSpeed) + "x";
+        long seconds = Math.round(deadlineSeconds);
+        if (seconds % 3600 == 0) return seconds / 3600 + "h";
+        if (seconds % 60 == 0) return seconds / 60 + "m";
+        return seconds + "s";
+    }
+
+    private static String trim(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+// Picks the x264/x265 -preset for a job with a SpeedTarget: the slowest
+// (best compressing) tier that is still expected to make it, judged by how
+// fast earlier jobs ran on this machine (JobMetrics). The preset's own tier
+// is the slowest it will pick; a target only ever makes a job faster.
+//
+// Tiers that haven't been measured are estimated from one that has, using
+// x264's typical speed ratios, scaled by the pixels per frame of the inputs.
+public final class SpeedTiers {
+
+    // Slowest first
+    public static final List<String> TIERS = List.of(
+            "veryslow", "slower", "slow", "medium", "fast", "faster", "veryfast", "superfast", "ultrafast");
+
+    // Rough encoding speed of each tier relative to medium; only ratios matter
+    private static final double[] RELATIVE_SPEED = { 0.15, 0.3, 0.6, 1.0, 1.3, 1.8, 3.2, 4.5, 6.5 };
+
+    private static final Set<String> ENCODERS = Set.of("libx264", "libx265");
+
+    // Recent runs a tier estimate is based on; older ones may predate a new machine
+    private static final int SAMPLES = 20;
+
+    // Aim this much under the budget, for the audio, the muxing and bad luck
+    private static final double MARGIN = 1.15;
+
+    // Let ffmpeg settle before judging its speed: the first seconds are lookahead and startup
+    private static final double WARMUP_MEDIA_SECONDS = 10;
+    private static final double WARMUP_WALL_SECONDS = 5;
+
+    private SpeedTiers() {
+        // Prevent instantiation
+    }
+
+    // The preset encodes video with an encoder that has these tiers
+    public static boolean isTunable(Preset preset) {
+        return preset != null && ENCODERS.contains(PresetArgs.videoCodec(preset.getFfmpegArgs()));
+    }
+
+    // The preset's tier; x264 and x265 default to medium
+    public static String tierOf(Preset preset) {
+        String tier = PresetArgs.value(preset.getFfmpegArgs(), "-preset");
+        return tier != null && TIERS.contains(tier) ? tier : "medium";
+    }
+
+    // The same preset at another tier
+    public static Preset withTier(Preset preset, String tier) {
+
+        List<String> args = new ArrayList<>(preset.getFfmpegArgs());
+        int at = args.lastIndexOf("-preset");
+        if (at >= 0 && at + 1 < args.size()) {
+            args.set(at + 1, tier);
+        } else {
+            args.add("-preset");
+            args.add(tier);
+        }
+        return new Preset(preset.getName(), preset.getOutputExtension(), List.copyOf(args));
+    }
+
+    // What caches and journals know a job by: the preset before its tier was
+    // picked, plus the target. The tier follows from the history at the time,
+    // so the same job may get another one next run. Only ever hashed, never run.
+    public static Preset keyOf(Preset untuned, SpeedTarget target) {
+        if (target == null || !isTunable(untuned)) return untuned;
+        List<String> args = new ArrayList<>(untuned.getFfmpegArgs());
+        args.add("#target");
+        args.add(target.toString());
+        return new Preset(untuned.getName(), untuned.getOutputExtension(), List.copyOf(args));
+    }
+
+    // The preset at the slowest tier expected to meet the target; the preset
+    // itself when it already should, or when there is no history to go by
+    public static Preset choose(Preset preset, MediaInfo info, SpeedTarget target) {
+
+        if (!isTunable(preset) || info == null || target == null) return preset;
+
+        double duration = info.getDurationSeconds();
+        double budget = target.budgetSeconds(duration);
+        if (duration <= 0 || budget <= 0) return preset;
+
+        double required = duration / budget * MARGIN;
+        String encoder = PresetArgs.videoCodec(preset.getFfmpegArgs());
+        MediaInfo.Stream video = info.firstVideoStream();
+        long pixels = video != null ? (long) video.getWidth() * video.getHeight() : 0;
+
+        int from = TIERS.indexOf(tierOf(preset));
+        for (int i = from; i < TIERS.size(); i++) {
+            double expected = estimate(encoder, i, pixels);
+            if (expected <= 0) return preset;   // nothing measured yet: the live check has to do
+            if (expected >= required) return i == from ? preset : withTier(preset, TIERS.get(i));
+        }
+        return withTier(preset, TIERS.get(TIERS.size() - 1));
+    }
+
+    // Called with each live progress event of a running encode. Returns the
+    // tier to restart at when the encode is falling behind and a restart at
+    // that tier still finishes sooner than carrying on, otherwise null.
+    public static String stepUp(Preset preset, ProgressEvent event, double elapsedSeconds, double budgetSeconds) {
+
+        double duration = event.getDurationSeconds();
+        double done = event.getOutTimeSeconds();
+        double speed = event.getSpeed();
+        if (!isTunable(preset) || budgetSeconds <= 0 || duration <= 0 || speed <= 0) return null;
+        if (done < WARMUP_MEDIA_SECONDS || elapsedSeconds < WARMUP_WALL_SECONDS) return null;
+
+        double projected = elapsedSeconds + (duration - done) / speed;
+        if (projected <= budgetSeconds) return null;
+
+        // Starting over throws away what is done; only worth it if the faster tier wins that back
+        int current = TIERS.indexOf(tierOf(preset));
+        String best = null;
+        double bestFinish = projected;
+        for (int i = current + 1; i < TIERS.size(); i++) {
+            double finish = elapsedSeconds + duration / (speed * RELATIVE_SPEED[i] / RELATIVE_SPEED[current]);
+            if (finish < bestFinish) {
+                best = TIERS.get(i);
+                bestFinish = finish;
+            }
+            if (finish * MARGIN <= budgetSeconds) return TIERS.get(i);   // slowest that makes it
+        }
+        return best;
+    }
+
+    // Expected realtime factor of tier index on an input of this many pixels, 0 if unknown
+    private static double estimate(String encoder, int tier, long pixels) {
+
+        List<Double> samples = new ArrayList<>();
+        List<JobMetrics.Record> history = JobMetrics.get().history();
+
+        for (int i = history.size() - 1; i >= 0 && samples.size() < SAMPLES; i--) {
+            JobMetrics.Record record = history.get(i);
+            if (!record.getState().equals(ConversionJob.State.DONE.name())) continue;
+            if (!encoder.equals(record.getEncoder()) || record.getRealtimeFactor() <= 0) continue;
+            if (record.getOutputs() > 1) continue;   // a shared pass says nothing about one tier
+
+            int measured = TIERS.indexOf(record.getSpeedTier() != null ? record.getSpeedTier() : "medium");
+            if (measured < 0) continue;
+
+            double factor = record.getRealtimeFactor() * RELATIVE_SPEED[tier] / RELATIVE_SPEED[measured];
+            if (pixels > 0 && record.getPixels() > 0) {
+                factor *= (double) record.getPixels() / pixels;
+            }
+            samples.add(factor);
+        }
+
+        if (samples.isEmpty()) return 0;
+        Collections.sort(samples);
+        return samples.get(samples.size() / 2);
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Decides per stream whether the input already is what the preset would
+// produce. Matching streams are copied ("-c:v copy") instead of re-encoded,
+// which turns a 20 minute x264 encode of an H.264 recording into a remux.
+public final class StreamCopyPlanner {
+
+    public static final class Plan {
+
+        private final Preset preset;
+        private final String video;
+        private final String audio;
+
+        private Plan(Preset preset, String video, String audio) {
+            this.preset = preset;
+            this.video = video;
+            this.audio = audio;
+        }
+
+        // The preset to actually run: the original, or a copy with stream-copy arguments swapped in
+        public Preset getPreset() {
+            return preset;
+        }
+
+        // The same plan running the preset CapabilityRegistry adapted to this ffmpeg
+        public Plan withPreset(Preset adapted) {
+            String encoder = PresetArgs.videoCodec(adapted.getFfmpegArgs());
+            boolean swapped = encoder != null && !encoder.equals(PresetArgs.videoCodec(preset.getFfmpegArgs()));
+            String tier = PresetArgs.value(adapted.getFfmpegArgs(), "-preset");
+            boolean retiered = tier != null && !tier.equals(PresetArgs.value(preset.getFfmpegArgs(), "-preset"));
+
+            String planned = video;
+            if (video.equals("transcode") && swapped) {
+                planned = "transcode (" + encoder + ")";
+            } else if (video.equals("transcode") && retiered) {
+                planned = "transcode (" + tier + ")";
+            }
+            return new Plan(adapted, planned, audio);
+        }
+
+        public boolean copiesVideo() {
+            return "copy".equals(video);
+        }
+
+        public boolean copiesAudio() {
+            return "copy".equals(audio);
+        }
+
+        // "video: copy, audio: transcode"
+        public String describe() {
+            return "video: " + video + ", audio: " + audio;
+        }
+
+        @Override
+        public String toString() {
+            return describe();
+        }
+    }
+
+    // Encoder name -> the codec_name ffprobe reports for its output
+    private static final Map<String, String> ENCODED_AS = Map.ofEntries(
+            Map.entry("libx264", "h264"),
+            Map.entry("libx264rgb", "h264"),
+            Map.entry("libopenh264", "h264"),
+            Map.entry("h264_nvenc", "h264"),
+            Map.entry("h264_vaapi", "h264"),
+            Map.entry("h264_qsv", "h264"),
+            Map.entry("h264_amf", "h264"),
+            Map.entry("h264_v4l2m2m", "h264"),
+            Map.entry("libx265", "hevc"),
+            Map.entry("hevc_nvenc", "hevc"),
+            Map.entry("hevc_vaapi", "hevc"),
+            Map.entry("hevc_qsv", "hevc"),
+            Map.entry("libvpx", "vp8"),
+            Map.entry("libvpx-vp9", "vp9"),
+            Map.entry("libaom-av1", "av1"),
+            Map.entry("libsvtav1", "av1"),
+            Map.entry("libfdk_aac", "aac"),
+            Map.entry("libmp3lame", "mp3"),
+            Map.entry("libopus", "opus"),
+            Map.entry("libvorbis", "vorbis"));
+
+    private StreamCopyPlanner() {
+        // Prevent instantiation
+    }
+
+    // info may be null (probe failed): then the preset runs unchanged
+    public static Plan plan(Preset preset, MediaInfo info) {
+
+        List<String> args = preset.getFfmpegArgs();
+        String videoCodec = PresetArgs.videoCodec(args);
+        String audioCodec = PresetArgs.audioCodec(args);
+
+        boolean copyVideo = info != null && videoMatches(args, videoCodec, info.firstVideoStream());
+        boolean copyAudio = info != null && audioMatches(args, audioCodec, info.firstAudioStream());
+
+        String video = "copy".equals(videoCodec) || copyVideo ? "copy" : "transcode";
+        String audio = "copy".equals(audioCodec) || copyAudio ? "copy" : "transcode";
+        if (info != null && !info.hasVideo()) video = "none";
+        if (info != null && !info.hasAudio()) audio = "none";
+
+        if (!copyVideo && !copyAudio) {
+            return new Plan(preset, video, audio);
+        }
+
+        List<String> planned = new ArrayList<>(args);
+        if (copyVideo) {
+            planned = PresetArgs.withoutVideoArgs(planned);
+            planned.add("-c:v");
+            planned.add("copy");
+        }
+        if (copyAudio) {
+            planned = PresetArgs.withoutAudioArgs(planned);
+            planned.add("-c:a");
+            planned.add("copy");
+        }
+
+        return new Plan(new Preset(preset.getName(), preset.getOutputExtension(), List.copyOf(planned)),
+                video, audio);
+    }
+
+    private static boolean videoMatches(List<String> args, String encoder, MediaInfo.Stream stream) {
+
+        if (stream == null || encoder == null || encoder.equals("copy")) return false;
+        if (!codecMatches(encoder, stream.getCodecName())) return false;
+
+        // Anything that changes the picture needs a decode
+        if (PresetArgs.hasOption(args, "-vf", "-filter:v", "-s", "-r")) return false;
+
+        String pixFmt = PresetArgs.value(args, "-pix_fmt");
+        if (pixFmt != null && !pixFmt.equals(stream.getPixelFormat())) return false;
+
+        String profile = PresetArgs.value(args, "-profile:v");
+        if (profile != null && (stream.getProfile() == null
+                || !stream.getProfile().equalsIgnoreCase(profile))) return false;
+
+        String level = PresetArgs.value(args, "-level", "-level:v");
+        if (level != null) {
+            try {
+                int wanted = Math.round(Float.parseFloat(level) * 10);
+                if (stream.getLevel() <= 0 || stream.getLevel() > wanted) return false;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean audioMatches(List<String> args, String encoder, MediaInfo.Stream stream) {
+
+        if (stream == null || encoder == null || encoder.equals("copy")) return false;
+        if (!codecMatches(encoder, stream.getCodecName())) return false;
+
+        if (PresetArgs.hasOption(args, "-af", "-filter:a")) return false;
+
+        String rate = PresetArgs.value(args, "-ar");
+        if (rate != null && !rate.equals(String.valueOf(stream.getSampleRate()))) return false;
+
+        String channels = PresetArgs.value(args, "-ac");
+        if (channels != null && !channels.equals(String.valueOf(stream.getChannels()))) return false;
+
+        return true;
+    }
+
+    private static boolean codecMatches(String encoder, String codecName) {
+        if (codecName == null) return false;
+        String produces = ENCODED_AS.getOrDefault(encoder.toLowerCase(Locale.ROOT), encoder.toLowerCase(Locale.ROOT));
+        return produces.equals(codecName.toLowerCase(Locale.ROOT));
+    }
+}
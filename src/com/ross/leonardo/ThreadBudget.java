@@ -0,0 +1,123 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.util.List;
+
+// Splits the machine's cores between the ffmpeg processes that are running
+// at the same time, so four concurrent x264 encodes don't each start a
+// thread per core and thrash. ffmpeg can't change its thread count after
+// launch, so the split is recomputed every time a process starts: a process
+// launched after others finish gets the freed-up share.
+public final class ThreadBudget {
+
+    private static final ThreadBudget INSTANCE =
+            new ThreadBudget(Runtime.getRuntime().availableProcessors());
+
+    public final class Lease implements AutoCloseable {
+
+        private final int processes;
+        private final int threads;
+        private boolean released;
+
+        private Lease(int processes, int threads) {
+            this.processes = processes;
+            this.threads = threads;
+        }
+
+        // Threads each process of this lease may use
+        public int getThreads() {
+            return threads;
+        }
+
+        @Override
+        public void close() {
+            release(this);
+        }
+    }
+
+    private final int cores;
+    private int runningProcesses;
+    private int expectedJobs;
+
+    public ThreadBudget(int cores) {
+        this.cores = Math.max(1, cores);
+    }
+
+    public static ThreadBudget get() {
+        return INSTANCE;
+    }
+
+    // The scheduler's view of how many jobs will be encoding side by side, so the
+    // first job of a batch doesn't grab every core just because it started first
+    public synchronized void setExpectedJobs(int jobs) {
+        this.expectedJobs = Math.max(0, jobs);
+    }
+
+    // Reserves a share for a group of processes launched together (one per chunk
+    // for segmented encodes, otherwise one)
+    public synchronized Lease acquire(int processes) {
+        return acquire(processes, 0);
+    }
+
+    // Same, for processes pinned to cpus cores (0 = not pinned): they share those
+    // few, however many the rest of the machine has free
+    public synchronized Lease acquire(int processes, int cpus) {
+        runningProcesses += processes;
+        int slots = Math.max(runningProcesses, expectedJobs);
+        int threads = Math.max(1, cores / slots);
+        if (cpus > 0) threads = Math.min(threads, Math.max(1, cpus / processes));
+        return new Lease(processes, threads);
+    }
+
+    public synchronized int getRunningProcesses() {
+        return runningProcesses;
+    }
+
+    private synchronized void release(Lease lease) {
+        if (lease.released) return;
+        lease.released = true;
+        runningProcesses -= lease.processes;
+    }
+
+    // Adds the thread limits to an "ffmpeg ... -i input ... output" command:
+    // filter threads (global), decoder threads (before -i) and encoder threads
+    // (just before the output). Covers libx264, whose thread count follows -threads.
+    public static void apply(List<String> command, int threads) {
+        apply(command, threads, List.of(command.get(command.size() - 1)));
+    }
+
+    // Same for a command with several outputs, each of which gets its own -threads
+    public static void apply(List<String> command, int threads, List<String> outputs) {
+
+        String n = String.valueOf(threads);
+
+        for (String output : outputs) {
+            int at = command.lastIndexOf(output);
+            command.add(at, "-threads");
+            command.add(at + 1, n);
+        }
+
+        int input = command.indexOf("-i");
+        if (input > 0) {
+            command.add(input, "-threads");
+            command.add(input + 1, n);
+        }
+
+        command.add(1, "-filter_threads");
+        command.add(2, n);
+    }
+
+    // Stream copies barely touch the CPU, so they don't take a share
+    public static boolean needsThreads(Preset preset) {
+        if (preset == null) return true;
+        List<String> args = preset.getFfmpegArgs();
+        return !"copy".equals(PresetArgs.videoCodec(args)) || !"copy".equals(PresetArgs.audioCodec(args));
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+// One small still per media file, so fifty "2026-10-17 21-04-33.mkv" can be
+// told apart at a glance. ffmpeg seeks to the keyframe nearest 10% in (past
+// fades and title cards), decodes only keyframes and stops after one frame,
+// which takes tens of milliseconds even on a 40 GB recording.
+//
+// Thumbnails are kept in memory (least recently used dropped first) and as
+// JPEGs under ~/.leonardo/thumbs, named after path, size and modification
+// time, so a file that changes gets a new one.
+public class ThumbnailCache {
+
+    public static final int WIDTH = 128;
+    public static final int HEIGHT = 72;
+
+    private static final long MEMORY_BYTES = 32L << 20;
+    private static final int MEMORY_ENTRIES = 2000;   // files without a thumbnail take no bytes
+    private static final int DISK_FILES = 5000;
+    private static final int PRUNE_EVERY = 100;
+    private static final int THREADS = 2;
+
+    // Where in the file to look; the very first frame is often black
+    private static final double POSITION = 0.1;
+    private static final double MAX_POSITION_SECONDS = 30;
+
+    private static final ThumbnailCache INSTANCE = new ThumbnailCache(AppPaths.resolve("thumbs"));
+
+    private final File dir;
+    private final ExecutorService pool;
+    private final FFmpegRunner runner = new FFmpegRunner();
+    private final AtomicInteger written = new AtomicInteger();
+
+    // key -> thumbnail; a null value means the file has none (no video, unreadable)
+    private final LinkedHashMap<String, ImageIcon> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryBytes;
+
+    // key -> callbacks waiting for a thumbnail that is being made
+    private final Map<String, List<Consumer<ImageIcon>>> pending = new HashMap<>();
+
+    public ThumbnailCache(File dir) {
+        this.dir = dir;
+
+        // Previews must never slow down a conversion
+        runner.setPriority(ProcessPriority.BACKGROUND, null);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(THREADS, r -> {
+            Thread t = new Thread(r, "leonardo-thumbs-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    public static ThumbnailCache get() {
+        return INSTANCE;
+    }
+
+    // Calls onReady with the file's thumbnail, or with null if it has none:
+    // right away when it is in memory, otherwise later on a pool thread
+    public void request(File file, Consumer<ImageIcon> onReady) {
+
+        String key = file.getAbsolutePath() + "|" + file.length() + "|" + file.lastModified();
+
+        boolean inMemory;
+        ImageIcon cached = null;
+        synchronized (this) {
+            inMemory = memory.containsKey(key);
+            if (inMemory) {
+                cached = memory.get(key);
+            } else {
+                List<Consumer<ImageIcon>> waiting = pending.get(key);
+                if (waiting != null) {
+                    waiting.add(onReady);   // already being made
+                    return;
+                }
+                waiting = new ArrayList<>();
+                waiting.add(onReady);
+                pending.put(key, waiting);
+            }
+        }
+
+        if (inMemory) {
+            onReady.accept(cached);
+            return;
+        }
+
+        pool.execute(() -> {
+            ImageIcon icon = null;
+            boolean known = false;
+            try {
+                icon = load(file, key);
+                known = true;
+            } catch (IOException e) {
+                // Couldn't tell this time (no ffprobe, slow mount, file still being
+                // written): nothing is remembered, so the next request tries again
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                List<Consumer<ImageIcon>> waiting;
+                synchronized (this) {
+                    if (known) remember(key, icon);
+                    waiting = pending.remove(key);
+                }
+                for (Consumer<ImageIcon> callback : waiting) {
+                    callback.accept(icon);
+                }
+            }
+        });
+    }
+
+    private void remember(String key, ImageIcon icon) {
+        memory.put(key, icon);
+        memoryBytes += bytes(icon);
+
+        Iterator<Map.Entry<String, ImageIcon>> it = memory.entrySet().iterator();
+        while ((memoryBytes > MEMORY_BYTES || memory.size() > MEMORY_ENTRIES) && it.hasNext()) {
+            memoryBytes -= bytes(it.next().getValue());
+            it.remove();
+        }
+    }
+
+    private static long bytes(ImageIcon icon) {
+        return icon != null ? (long) icon.getIconWidth() * icon.getIconHeight() * 4 : 0;
+    }
+
+    // From disk, or made now; null when the file has no picture to show.
+    // Throws when that can't be told yet, and then writes nothing.
+    private ImageIcon load(File file, String key) throws IOException, InterruptedException {
+
+        File cached = new File(dir, Digests.sha1(key) + ".jpg");
+        if (cached.isFile()) {
+            return cached.length() > 0 ? read(cached) : null;   // empty: known to have none
+        }
+
+        Files.createDirectories(dir.toPath());
+        Path tmp = Files.createTempFile(dir.toPath(), "thumb-", ".jpg");
+        try {
+            if (!generate(file, tmp)) {
+                Files.write(tmp, new byte[0]);
+            }
+            Files.move(tmp, cached.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+
+        if (written.incrementAndGet() % PRUNE_EVERY == 0) prune();
+        return cached.length() > 0 ? read(cached) : null;
+    }
+
+    // False when the file has no video or ffmpeg can't decode a frame of it
+    private boolean generate(File file, Path output) throws IOException, InterruptedException {
+
+        MediaInfo info = MediaProbe.get().probeOrNull(file);
+        if (info == null) throw new IOException("Could not probe " + file.getName());
+        if (!info.hasVideo()) return false;
+
+        double duration = info.getDurationSeconds();
+        double position = duration > 0 ? Math.min(duration * POSITION, MAX_POSITION_SECONDS) : 0;
+
+        List<String> command = List.of(
+                "ffmpeg", "-hide_banner", "-v", "error",
+                "-threads", "1",
+                "-skip_frame", "nokey",         // keyframes only: no reference chains to decode
+                "-ss", String.format(Locale.ROOT, "%.3f", position),
+                "-i", file.getAbsolutePath(),
+                "-map", "0:v:0", "-an", "-sn",
+                "-frames:v", "1",
+                "-vf", "scale=" + WIDTH + ":" + HEIGHT + ":force_original_aspect_ratio=decrease",
+                "-q:v", "4",
+                "-y", output.toString());
+
+        try {
+            runner.capture(command);
+        } catch (FFmpegRunner.ExitException e) {
+            return false;
+        }
+        return Files.size(output) > 0;
+    }
+
+    private static ImageIcon read(File file) throws IOException {
+        BufferedImage image = ImageIO.read(file);
+        return image != null ? new ImageIcon(image) : null;
+    }
+
+    // Oldest first, down to the limit
+    private void prune() {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".jpg"));
+        if (files == null || files.length <= DISK_FILES) return;
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (int i = 0; i < files.length - DISK_FILES; i++) {
+            files[i].delete();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.awt.Dimension;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.File;
+
+import javax.swing.BorderFactory;
+import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+
+// File chooser accessory that shows the selected file's thumbnail
+public class ThumbnailPreview extends JLabel implements PropertyChangeListener {
+
+    private File file;
+
+    public ThumbnailPreview(JFileChooser chooser) {
+        setHorizontalAlignment(SwingConstants.CENTER);
+        setPreferredSize(new Dimension(ThumbnailCache.WIDTH + 16, ThumbnailCache.HEIGHT + 16));
+        setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+        chooser.addPropertyChangeListener(JFileChooser.SELECTED_FILE_CHANGED_PROPERTY, this);
+    }
+
+    @Override
+    public void propertyChange(PropertyChangeEvent e) {
+
+        File selected = (File) e.getNewValue();
+        file = selected;
+        setIcon(null);
+        setText("");
+        if (selected == null || !selected.isFile()) return;
+
+        ThumbnailCache.get().request(selected, icon -> SwingUtilities.invokeLater(() -> {
+            if (file != selected) return;   // the selection moved on meanwhile
+            setIcon(icon);
+            setText(icon == null ? "No preview" : "");
+        }));
+    }
+}
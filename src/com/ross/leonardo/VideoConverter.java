@@ -8,131 +8,281 @@
 
 package com.ross.leonardo;
 
-import javax.swing.*;
-import java.io.*;
-import java.util.*;
-
-public class VideoConverter extends SwingWorker<Void, Integer> {
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Runs one ffmpeg conversion. No Swing in here: both the GUI queue and the
+// batch CLI run it on a JobScheduler worker thread.
+//
+// A converter can have several outputs (one per preset): ffmpeg then decodes
+// the input once and feeds every encoder from the same frames.
+public class VideoConverter {
 
     private final String input;
-    private final String output;
-    private final Preset preset;                 // ✅ NEW
-    private final JProgressBar progressBar;
-    private final JButton convertButton;
-    private final JFrame parent;
-    private Exception conversionError = null;
-    private Process ffmpegProcess;
+    private final List<Preset> presets = new ArrayList<>();
+    private final List<Preset> untuned = new ArrayList<>();
+    private final List<String> outputs = new ArrayList<>();
+    private final int segments;
+    private final ProgressListener listener;
+    private final FFmpegRunner runner = new FFmpegRunner();
+    private final ProcessUsage usage = new ProcessUsage();
+    private volatile SegmentedEncoder segmentedEncoder;
+    private volatile ResumableEncoder resumableEncoder;
+    private volatile GrowingFileFeeder feeder;
+    private boolean resumable;
+    private boolean follow;
+    private ProcessPriority priority = ProcessPriority.NORMAL;
+    private String cpus;
+    private SpeedTarget speedTarget;
+
+    public VideoConverter(String input,
+                          String output,
+                          Preset preset,
+                          ProgressListener listener) {
+        this(input, output, preset, 0, listener);
+    }
 
+    // segments > 1 splits long re-encodes across that many parallel ffmpeg processes
     public VideoConverter(String input,
                           String output,
-                          Preset preset,          // ✅ NEW
-                          JProgressBar progressBar,
-                          JButton convertButton,
-                          JFrame parent) {
+                          Preset preset,
+                          int segments,
+                          ProgressListener listener) {
+
+        this(input, segments, listener);
+        addOutput(preset, output);
+    }
 
+    // Outputs are added with addOutput before convert()
+    VideoConverter(String input, int segments, ProgressListener listener) {
         this.input = input;
-        this.output = output;
-        this.preset = preset;
-        this.progressBar = progressBar;
-        this.convertButton = convertButton;
-        this.parent = parent;
+        this.segments = segments;
+        this.listener = listener;
+        runner.setUsage(usage);
+    }
+
+    public void addOutput(Preset preset, String output) {
+        addOutput(preset, preset, output);
     }
 
-    @Override
-    protected Void doInBackground() {
+    // untuned is the preset before a speed target picked its tier, which is
+    // what a resume journal is keyed on
+    void addOutput(Preset preset, Preset untuned, String output) {
+        presets.add(preset);
+        this.untuned.add(untuned);
+        outputs.add(output);
+    }
 
-        try {
+    // Checkpoint long re-encodes so a cancelled or crashed run can continue later (see ResumableEncoder)
+    public void setResumable(boolean resumable) {
+        this.resumable = resumable;
+    }
 
-            double duration = FFmpegUtil.getDurationSeconds(input);
+    // Start on an input that is still being recorded and keep reading as it grows (see GrowingFileFeeder)
+    public void setFollow(boolean follow) {
+        this.follow = follow;
+    }
 
-            List<String> command = new ArrayList<>();
-            command.add("ffmpeg");
-            command.add("-hide_banner");
-            command.add("-y");               // overwrite output if it exists
-            command.add("-i");
-            command.add(input);
+    // nice/ionice class and CPU list ("0-3"; null for all) of every ffmpeg this converter starts
+    public void setPriority(ProcessPriority priority, String cpus) {
+        this.priority = priority;
+        this.cpus = cpus;
+        runner.setPriority(priority, cpus);
+    }
 
-            // ✅ APPLY THE PRESET FFmpeg ARGS (THIS IS THE FIX)
-            if (preset != null && preset.getFfmpegArgs() != null) {
-                command.addAll(preset.getFfmpegArgs());
+    // Encode fast enough for the target, stepping up the x264 tier when it falls behind (see SpeedTiers)
+    public void setSpeedTarget(SpeedTarget speedTarget) {
+        this.speedTarget = speedTarget;
+    }
+
+    // The presets as they ran, which differ from the ones added when a speed target changed a tier
+    public synchronized List<Preset> getPresets() {
+        return List.copyOf(presets);
+    }
+
+    public void convert() throws IOException, InterruptedException {
+
+        File inputFile = new File(input);
+        if (follow && GrowingFileFeeder.isGrowing(inputFile, GrowingFileFeeder.DEFAULT_IDLE_MILLIS)) {
+            GrowingFileFeeder growing = new GrowingFileFeeder(inputFile, GrowingFileFeeder.DEFAULT_IDLE_MILLIS);
+            synchronized (this) {
+                if (runner.isCancelled()) return;
+                feeder = growing;
             }
 
-            command.add(output);
+            if (GrowingFileFeeder.isStreamable(inputFile)) {
+                convertLive(growing);
+                return;
+            }
 
-            ProcessBuilder pb = new ProcessBuilder(command);
-            pb.redirectErrorStream(true);
+            // No way to read it before it's complete; at least start the moment it is
+            growing.awaitSettled();
+            if (runner.isCancelled()) return;
+        }
 
-            ffmpegProcess = pb.start();
-            Process process = ffmpegProcess;
+        MediaInfo info = MediaProbe.get().probeOrNull(inputFile);
+        double duration = info != null ? info.getDurationSeconds() : 0;
 
-            BufferedReader reader =
-                    new BufferedReader(new InputStreamReader(process.getInputStream()));
+        // Chunked encoding splits one output; with several, the shared decode is the win
+        if (outputs.size() == 1) {
+            Preset preset = presets.get(0);
 
-            String line;
+            if (resumable && info != null && ResumableEncoder.canResume(preset, duration)) {
+                convertResumable(info);
+                return;
+            }
 
-            while (!isCancelled() && (line = reader.readLine()) != null) {
+            if (segments > 1 && info != null && SegmentedEncoder.canSegment(preset, duration)) {
+                convertSegmented(info);
+                return;
+            }
 
-                if (line.contains("time=")) {
-                    double current = FFmpegUtil.extractTimeInSeconds(line);
-                    int percent = (int) ((current / duration) * 100);
-                    publish(Math.min(percent, 100));
-                }
+            if (speedTarget != null && duration > 0 && SpeedTiers.isTunable(preset)) {
+                convertWithTarget(duration);
+                return;
             }
+        }
+
+        run(buildCommand(input), duration, null, listener);
+    }
+
+    // x264 can't change tiers mid-stream, so falling behind means starting
+    // over at a faster one, early enough that it still pays off
+    private void convertWithTarget(double duration) throws IOException, InterruptedException {
+
+        long started = System.nanoTime();
+        double budget = speedTarget.budgetSeconds(duration);
+
+        while (true) {
+            Preset preset = presets.get(0);
+            AtomicReference<String> stepTo = new AtomicReference<>();
 
-            process.waitFor();
+            ProgressListener watch = event -> {
+                if (listener != null) listener.progressChanged(event);
+                if (stepTo.get() != null) return;
+                String tier = SpeedTiers.stepUp(preset, event, (System.nanoTime() - started) / 1e9, budget);
+                if (tier != null && stepTo.compareAndSet(null, tier)) {
+                    runner.abort();
+                }
+            };
+
+            try {
+                run(buildCommand(input), duration, null, watch);
+                return;   // finished before the restart got to it, if there was one
+            } catch (IOException e) {
+                if (stepTo.get() == null || runner.isCancelled()) throw e;   // a real failure, not our restart
+            }
 
-        } catch (Exception e) {
-            conversionError = e;
+            synchronized (this) {
+                presets.set(0, SpeedTiers.withTier(preset, stepTo.get()));
+            }
         }
+    }
 
-        return null;
+    // The recording goes through ffmpeg's stdin, so there is no duration to report against
+    private void convertLive(GrowingFileFeeder growing) throws IOException, InterruptedException {
+        run(buildCommand("pipe:0"), 0, growing::feed, listener);
     }
 
-    @Override
-    protected void process(List<Integer> chunks) {
-        int value = chunks.get(chunks.size() - 1);
-        progressBar.setValue(value);
+    private void run(List<String> command, double duration, FFmpegRunner.StdinSource stdin,
+                     ProgressListener progress) throws IOException, InterruptedException {
+
+        int encoding = 0;
+        for (Preset preset : presets) {
+            if (ThreadBudget.needsThreads(preset)) encoding++;
+        }
+
+        if (encoding == 0) {
+            runner.run(command, duration, progress, stdin);
+            return;
+        }
+
+        // Each encoding output counts as a process of its own for the share of cores
+        try (ThreadBudget.Lease lease = ThreadBudget.get().acquire(encoding, runner.getCpuCount())) {
+            ThreadBudget.apply(command, lease.getThreads(), outputs);
+            // ffmpeg's own final block arrives with progress=end
+            runner.run(command, duration, progress, stdin);
+        }
     }
 
-    @Override
-    protected void done() {
+    private void convertSegmented(MediaInfo info) throws IOException, InterruptedException {
 
-        convertButton.setEnabled(true);
+        SegmentedEncoder encoder = new SegmentedEncoder(input, outputs.get(0), presets.get(0), segments, info, listener);
+        encoder.setUsage(usage);
+        encoder.setPriority(priority, cpus);
 
-        // Re-enable preset & reset cancel in MainWindow
-        if (parent instanceof MainWindow) {
-            ((MainWindow) parent).conversionFinished();
+        synchronized (this) {
+            if (runner.isCancelled()) return;
+            segmentedEncoder = encoder;
         }
 
-        if (isCancelled()) {
+        encoder.encode();
+    }
 
-            if (ffmpegProcess != null) {
-                ffmpegProcess.destroyForcibly();
-            }
+    private void convertResumable(MediaInfo info) throws IOException, InterruptedException {
 
-            progressBar.setValue(0);
+        ResumableEncoder encoder = new ResumableEncoder(input, outputs.get(0), presets.get(0), segments, info, listener);
+        encoder.setUsage(usage);
+        encoder.setPriority(priority, cpus);
+        encoder.setSpeedTarget(untuned.get(0), speedTarget);
 
-            JOptionPane.showMessageDialog(parent,
-                    "Conversion Cancelled.",
-                    "Leonardo 10",
-                    JOptionPane.INFORMATION_MESSAGE);
+        synchronized (this) {
+            if (runner.isCancelled()) return;
+            resumableEncoder = encoder;
+        }
 
-            return;
+        try {
+            encoder.encode();
+        } finally {
+            synchronized (this) {
+                presets.set(0, encoder.getPreset());
+            }
         }
+    }
 
-        if (conversionError != null) {
-            JOptionPane.showMessageDialog(parent,
-                    "Conversion failed:\n" + conversionError.getMessage(),
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
-            return;
+    public synchronized void cancel() {
+        runner.cancel();
+        if (segmentedEncoder != null) {
+            segmentedEncoder.cancel();
         }
+        if (resumableEncoder != null) {
+            resumableEncoder.cancel();
+        }
+        if (feeder != null) {
+            feeder.cancel();
+        }
+    }
+
+    public boolean isCancelled() {
+        return runner.isCancelled();
+    }
+
+    // CPU and memory of every process this conversion started, chunks included
+    public ProcessUsage getUsage() {
+        return usage;
+    }
+
+    // source is the input path, or "pipe:0" when the input arrives on stdin
+    private List<String> buildCommand(String source) {
 
-        progressBar.setValue(100);
+        List<String> command = new ArrayList<>();
+        command.add("ffmpeg");
+        command.add("-hide_banner");
+        command.add("-y");               // overwrite output if it exists
+        command.add("-i");
+        command.add(source);
 
-        JOptionPane.showMessageDialog(parent,
-                "Conversion Complete!",
-                "Leonardo 10",
-                JOptionPane.INFORMATION_MESSAGE);
+        // Options before an output apply to that output only
+        for (int i = 0; i < outputs.size(); i++) {
+            Preset preset = presets.get(i);
+            if (preset != null && preset.getFfmpegArgs() != null) {
+                command.addAll(preset.getFfmpegArgs());
+            }
+            command.add(outputs.get(i));
+        }
+        return command;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,261 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+package com.ross.leonardo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Watches directories for new recordings and reports each one once it has
+// stopped growing. OBS (and most capture tools) create the file at the start
+// of a recording and append to it for hours, so a file only counts as ready
+// after its size and mtime have stayed the same for the settle time.
+//
+// WatchService events just nominate candidates; the settle check itself polls,
+// which also covers network shares that deliver few or no modify events.
+public class WatchFolderService {
+
+    public interface FileListener {
+        // Called on the watcher thread
+        void fileReady(File file);
+    }
+
+    public static final long DEFAULT_SETTLE_MILLIS = 5000;
+
+    private static final long POLL_MILLIS = 1000;
+
+    private final List<File> directories;
+    private final long settleMillis;
+
+    // Paths that must never be picked up, e.g. outputs written into a watched folder
+    private final Set<String> ignored = ConcurrentHashMap.newKeySet();
+
+    private final Map<Path, Candidate> candidates = new HashMap<>();
+
+    // Version last reported per file still in a folder; an entry goes when its file does
+    private final Map<Path, String> reported = new HashMap<>();
+
+    private volatile boolean reportGrowing;
+    private volatile FileListener listener;
+    private WatchService watchService;
+    private Thread thread;
+
+    public WatchFolderService(List<File> directories, long settleMillis) {
+        this.directories = List.copyOf(directories);
+        this.settleMillis = settleMillis;
+    }
+
+    public List<File> getDirectories() {
+        return directories;
+    }
+
+    // Report a new file as soon as it has data instead of once it has settled,
+    // for jobs that follow a recording while it is written (each path once)
+    public void setReportGrowing(boolean reportGrowing) {
+        this.reportGrowing = reportGrowing;
+    }
+
+    // Files that show up later under this path are not reported
+    public void ignore(File file) {
+        ignored.add(file.getAbsolutePath());
+    }
+
+    public synchronized void start(FileListener listener) throws IOException {
+
+        if (thread != null) return;
+        this.listener = listener;
+
+        watchService = FileSystems.getDefault().newWatchService();
+
+        try {
+            for (File dir : directories) {
+                if (!dir.isDirectory()) {
+                    throw new IOException("Not a directory: " + dir);
+                }
+                dir.toPath().register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        } catch (IOException e) {
+            watchService.close();
+            watchService = null;
+            throw e;
+        }
+
+        thread = new Thread(this::run, "leonardo-watch");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+
+        if (thread == null) return;
+
+        try {
+            watchService.close();
+        } catch (IOException ignoredException) {
+            // Closing anyway
+        }
+        thread.interrupt();
+        thread = null;
+    }
+
+    public synchronized boolean isRunning() {
+        return thread != null;
+    }
+
+    private void run() {
+
+        WatchService service = watchService;
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+
+                WatchKey key = service.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+
+                if (key != null) {
+                    Path dir = (Path) key.watchable();
+
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            rescan(dir);
+                        } else if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                            forget(dir.resolve((Path) event.context()));   // deleted or renamed away
+                        } else {
+                            nominate(dir.resolve((Path) event.context()));
+                        }
+                    }
+                    key.reset();
+                }
+
+                checkCandidates();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    // Events were dropped: everything in the folder is a candidate again,
+    // and whatever is gone from it is forgotten
+    private void rescan(Path dir) {
+        reported.keySet().removeIf(path -> dir.equals(path.getParent()) && !path.toFile().isFile());
+
+        File[] files = dir.toFile().listFiles(File::isFile);
+        if (files == null) return;
+        for (File file : files) {
+            nominate(file.toPath());
+        }
+    }
+
+    private void nominate(Path path) {
+
+        File file = path.toFile();
+        String name = file.getName();
+
+        // Dot files are our own scratch dirs and partial downloads, not recordings
+        if (name.startsWith(".") || name.endsWith(".tmp") || name.endsWith(".part")) return;
+        if (ignored.contains(file.getAbsolutePath())) return;
+
+        candidates.computeIfAbsent(path, p -> new Candidate(file));
+    }
+
+    private void forget(Path path) {
+        candidates.remove(path);
+        reported.remove(path);
+    }
+
+    private void checkCandidates() {
+
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Path, Candidate>> it = candidates.entrySet().iterator();
+
+        while (it.hasNext()) {
+            Map.Entry<Path, Candidate> entry = it.next();
+            Candidate candidate = entry.getValue();
+            File file = candidate.file;
+
+            if (!file.isFile()) {
+                it.remove();   // deleted or renamed before it settled
+                continue;
+            }
+
+            long size = file.length();
+            long modified = file.lastModified();
+
+            if (reportGrowing) {
+                if (size == 0) continue;
+                it.remove();
+                if (ignored.add(file.getAbsolutePath())) {
+                    report(file);
+                }
+                continue;
+            }
+
+            if (size != candidate.size || modified != candidate.modified) {
+                candidate.size = size;
+                candidate.modified = modified;
+                candidate.changedAt = now;
+                continue;
+            }
+
+            if (size == 0 || now - candidate.changedAt < settleMillis) continue;
+
+            it.remove();
+
+            if (ignored.contains(file.getAbsolutePath())) {
+                reported.remove(entry.getKey());
+                continue;
+            }
+
+            // The same version of a file is reported once, however many events it produced
+            String version = size + "|" + modified;
+            if (version.equals(reported.put(entry.getKey(), version))) continue;
+
+            report(file);
+        }
+    }
+
+    private void report(File file) {
+        try {
+            listener.fileReady(file);
+        } catch (RuntimeException e) {
+            // One bad file must not stop the watcher
+            System.err.println("Could not queue " + file + ": " + e);
+        }
+    }
+
+    private static final class Candidate {
+
+        private final File file;
+        private long size;
+        private long modified;
+        private long changedAt;
+
+        Candidate(File file) {
+            this.file = file;
+            this.size = file.length();
+            this.modified = file.lastModified();
+            this.changedAt = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Leonardo - Media Conversion Tool
+ * Copyright (c) 2026 Ross Contino
+ *
+ * Licensed under the MIT License.
+ * See LICENSE file in the project root for full license information.
+ */
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import javax.imageio.ImageIO;
+
+// Regenerates the prebaked icon sizes the window and About dialog load, so
+// startup never has to decode and scale the 1024px artwork:
+//
+//   java tools/IconSizes.java src/com/ross/leonardo/resources/leo_icon.png src/com/ross/leonardo/resources/icons
+public class IconSizes {
+
+    private static final int[] SIZES = { 16, 32, 48, 64, 128, 140, 256 };
+
+    public static void main(String[] args) throws Exception {
+
+        BufferedImage source = ImageIO.read(new File(args[0]));
+
+        for (int size : SIZES) {
+            // Halve step by step before the last bicubic pass; one big jump aliases badly
+            BufferedImage image = source;
+            int width = image.getWidth();
+            while (width / 2 >= size) {
+                width /= 2;
+                image = scale(image, width);
+            }
+            image = scale(image, size);
+
+            File out = new File(args[1], "leo_icon_" + size + ".png");
+            ImageIO.write(image, "png", out);
+            System.out.println(out);
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage in, int size) {
+        BufferedImage out = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = out.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(in, 0, 0, size, size, null);
+        g.dispose();
+        return out;
+    }
+}